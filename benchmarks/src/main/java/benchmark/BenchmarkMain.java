@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks with the gc profiler and compares time and allocation per operation
+// against baseline.properties. --save-baseline (or -DsaveBaseline=true before -jar) stores the
+// current run as the new baseline.
+public class BenchmarkMain {
+
+	private static final Path BASELINE = Paths.get(System.getProperty("baseline", "baseline.properties"));
+
+	public static void main(String[] args) throws RunnerException, IOException {
+		String include = "benchmark\\..*Benchmark";
+		boolean save = Boolean.getBoolean("saveBaseline");
+		for (String arg : args) {
+			if (arg.equals("--save-baseline")) {
+				save = true;
+			} else {
+				include = arg;
+			}
+		}
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		Properties current = new Properties();
+		for (RunResult result : results) {
+			String name = name(result);
+			current.setProperty(name + ".score", String.valueOf(result.getPrimaryResult().getScore()));
+			current.setProperty(name + ".unit", result.getPrimaryResult().getScoreUnit());
+			for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+				if (secondary.getKey().endsWith("gc.alloc.rate.norm")) {
+					current.setProperty(name + ".alloc", String.valueOf(secondary.getValue().getScore()));
+				}
+			}
+		}
+
+		if (Files.exists(BASELINE)) {
+			Properties baseline = new Properties();
+			try (Reader reader = Files.newBufferedReader(BASELINE)) {
+				baseline.load(reader);
+			}
+			compare(baseline, current);
+		} else {
+			System.out.println("No baseline at " + BASELINE.toAbsolutePath());
+		}
+
+		if (save) {
+			try (Writer writer = Files.newBufferedWriter(BASELINE)) {
+				current.store(writer, "JMH baseline: score per op and gc.alloc.rate.norm in bytes/op");
+			}
+			System.out.println("Baseline saved to " + BASELINE.toAbsolutePath());
+		}
+	}
+
+	private static String name(RunResult result) {
+		StringBuilder sb = new StringBuilder(result.getParams().getBenchmark());
+		for (String key : result.getParams().getParamsKeys()) {
+			sb.append('[').append(key).append('=').append(result.getParams().getParam(key)).append(']');
+		}
+		return sb.toString();
+	}
+
+	private static void compare(Properties baseline, Properties current) {
+		System.out.println();
+		System.out.printf("%-75s %14s %14s %9s %12s %12s%n", "Benchmark", "baseline", "current", "change",
+				"B/op before", "B/op now");
+		for (String key : new TreeSet<>(current.stringPropertyNames())) {
+			if (!key.endsWith(".score")) {
+				continue;
+			}
+			String name = key.substring(0, key.length() - ".score".length());
+			double now = Double.parseDouble(current.getProperty(key));
+			String before = baseline.getProperty(key);
+			String change = (before == null) ? "new"
+					: String.format("%+.1f%%", (now / Double.parseDouble(before) - 1) * 100);
+			System.out.printf("%-75s %14s %14.3f %9s %12s %12s%n", name, (before == null) ? "-" : before, now,
+					change, baseline.getProperty(name + ".alloc", "-"), current.getProperty(name + ".alloc", "-"));
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import boardgame.Piece;
+import boardgame.Position;
+import chess.BitBoard;
+import chess.Color;
+import chess.pieces.Rook;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	private BitBoard board;
+	private Rook rook;
+	private Position occupied;
+	private Position empty;
+
+	@Setup
+	public void setup() {
+		board = new BitBoard();
+		occupied = BitBoard.position(56);
+		empty = BitBoard.position(27);
+		board.placePeice(new Rook(board, Color.WHITE), occupied);
+		rook = new Rook(board, Color.BLACK);
+	}
+
+	@Benchmark
+	public Piece piece() {
+		return board.piece(occupied);
+	}
+
+	@Benchmark
+	public boolean threIsAPiece() {
+		return board.threIsAPiece(empty);
+	}
+
+	@Benchmark
+	public Piece placeAndRemovePiece() {
+		board.placePeice(rook, empty);
+		return board.removePiece(empty);
+	}
+}
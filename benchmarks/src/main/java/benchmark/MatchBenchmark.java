@@ -0,0 +1,104 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Color;
+import chess.MoveList;
+import chess.Perft;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchBenchmark {
+
+	private static final ChessPosition E1 = new ChessPosition('e', 1);
+
+	private ChessMatch middlegame;
+	private MoveList moves = new MoveList();
+	private int firstMove;
+
+	@Setup
+	public void setup() {
+		middlegame = new ChessMatch(Perft.REFERENCE_POSITIONS[1]);
+		middlegame.legalMoves(moves);
+		firstMove = moves.get(0);
+	}
+
+	// a fresh match for every call, the move can only be played once
+	@State(Scope.Thread)
+	public static class Opening {
+		ChessMatch match;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			match = new ChessMatch();
+		}
+	}
+
+	// one move away from scholar's mate, so the move runs the full mate test
+	@State(Scope.Thread)
+	public static class MateInOne {
+		ChessMatch match;
+
+		@Setup(Level.Invocation)
+		public void setup() {
+			match = new ChessMatch();
+			play(match, "e2e4", "e7e5", "f1c4", "b8c6", "d1h5", "g8f6");
+		}
+	}
+
+	@Benchmark
+	public ChessPiece performeChessMove(Opening opening) {
+		return opening.match.performeChessMove(new ChessPosition('e', 2), new ChessPosition('e', 4));
+	}
+
+	@Benchmark
+	public boolean performeCheckMate(MateInOne mate) {
+		mate.match.performeChessMove(new ChessPosition('h', 5), new ChessPosition('f', 7));
+		return mate.match.getCheckMate();
+	}
+
+	@Benchmark
+	public boolean testCheck() {
+		return middlegame.isSquareAttacked(E1, Color.BLACK);
+	}
+
+	@Benchmark
+	public int legalMoves() {
+		middlegame.legalMoves(moves);
+		return moves.size();
+	}
+
+	@Benchmark
+	public long makeUndoMove() {
+		middlegame.makeMove(firstMove);
+		long key = middlegame.getHashKey();
+		middlegame.undoMove();
+		return key;
+	}
+
+	private static void play(ChessMatch match, String... moves) {
+		for (String move : moves) {
+			match.performeChessMove(new ChessPosition(move.charAt(0), move.charAt(1) - '0'),
+					new ChessPosition(move.charAt(2), move.charAt(3) - '0'));
+		}
+	}
+}
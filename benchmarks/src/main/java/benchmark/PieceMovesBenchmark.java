@@ -0,0 +1,62 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Color;
+import chess.MoveList;
+import chess.Perft;
+import chess.PieceType;
+
+// move generation of one white piece of each kind in the Kiwipete middlegame
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+
+	@Param({ "PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING" })
+	private PieceType type;
+
+	private ChessPiece piece;
+	private MoveList moves = new MoveList();
+
+	@Setup
+	public void setup() {
+		ChessMatch match = new ChessMatch(Perft.REFERENCE_POSITIONS[1]);
+		for (ChessPiece[] row : match.getPieces()) {
+			for (ChessPiece p : row) {
+				if (piece == null && p != null && p.getColor() == Color.WHITE && p.getType() == type) {
+					piece = p;
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public boolean[][] possibleMoves() {
+		return piece.possibleMoves();
+	}
+
+	@Benchmark
+	public int generateMoves() {
+		moves.clear();
+		piece.generateMoves(moves);
+		return moves.size();
+	}
+}
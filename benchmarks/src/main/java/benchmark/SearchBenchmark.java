@@ -0,0 +1,61 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import chess.ChessMatch;
+import chess.Perft;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.TranspositionTable;
+
+// Time to depth of the parallel search on the middlegame position. Run with
+// -p threads=1,2,...,N to cover every core of the machine.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	@Param({ "7" })
+	private int depth;
+
+	private ChessMatch match;
+	private TranspositionTable table;
+	private ParallelSearch search;
+
+	@Setup
+	public void setup() {
+		match = new ChessMatch(Perft.REFERENCE_POSITIONS[1]);
+		table = new TranspositionTable(64);
+		search = new ParallelSearch(match, threads, table);
+	}
+
+	// every search starts from an empty table
+	@Setup(Level.Invocation)
+	public void clearTable() {
+		table.clear();
+	}
+
+	@Benchmark
+	public int timeToDepth() {
+		return search.search(SearchLimits.depth(depth)).getBestMove();
+	}
+}
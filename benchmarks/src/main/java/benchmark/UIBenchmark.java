@@ -0,0 +1,60 @@
+package benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.UI;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+// board rendering with the console swapped for a sink, so only our own cost is measured
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UIBenchmark {
+
+	private PrintStream console;
+	private ChessPiece[][] pieces;
+	private boolean[][] possibleMoves;
+
+	@Setup
+	public void setup() {
+		ChessMatch match = new ChessMatch();
+		pieces = match.getPieces();
+		possibleMoves = match.possibleMoves(new ChessPosition('b', 1));
+		console = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(console);
+	}
+
+	@Benchmark
+	public void printBoard() {
+		UI.printBoard(pieces);
+	}
+
+	@Benchmark
+	public void printBoardWithMoves() {
+		UI.printBoard(pieces, possibleMoves);
+	}
+}
@@ -0,0 +1,78 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.MoveList;
+import chess.archive.ArchivedGame;
+import chess.archive.GameArchive;
+import chess.archive.GameArchiveWriter;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+// archive <file.pgn> <file.cga>   appends the legal games of a PGN file to a binary archive
+// archive <file.cga>              scans every move of an archive and reports the throughput
+public class ArchiveProgram {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 2) {
+			convert(Paths.get(args[0]), Paths.get(args[1]));
+		} else if (args.length == 1) {
+			scan(Paths.get(args[0]));
+		} else {
+			System.out.println("Usage: ArchiveProgram <file.pgn> <file.cga> | ArchiveProgram <file.cga>");
+		}
+	}
+
+	private static void convert(Path pgn, Path archive) throws IOException {
+		long start = System.nanoTime();
+		long skipped = 0;
+		MoveList moves = new MoveList();
+		try (Reader in = Files.newBufferedReader(pgn, StandardCharsets.ISO_8859_1);
+				PgnReader reader = new PgnReader(in);
+				GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+			PgnGame game;
+			while ((game = reader.next()) != null) {
+				try {
+					String fen = game.getTag("FEN");
+					ChessMatch match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+					for (String san : game.getMoves()) {
+						match.makeMove(San.parse(match, san, moves));
+					}
+					writer.append(match, GameArchive.result(game.getResult()));
+				} catch (ChessExceptions | IllegalArgumentException e) {
+					// illegal moves, or a game too long or with too long a FEN for the archive
+					skipped++;
+				}
+			}
+			System.out.printf("%d games written, %d skipped, in %.3f s%n", writer.getGamesWritten(), skipped,
+					(System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	private static void scan(Path path) throws IOException {
+		long start = System.nanoTime();
+		try (GameArchive archive = new GameArchive(path)) {
+			long indexed = System.nanoTime() - start;
+			long moves = 0;
+			long checksum = 0;
+			for (ArchivedGame game : archive) {
+				int count = game.getMoveCount();
+				for (int i = 0; i < count; i++) {
+					checksum += game.getEncodedMove(i);
+				}
+				moves += count;
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%d games, %d moves, index built in %.3f s, scanned in %.3f s (%.0f MB/s, checksum %d)%n",
+					archive.size(), moves, indexed / 1e9, seconds, Files.size(path) / seconds / 1e6, checksum);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.Color;
+import chess.MoveList;
+import chess.archive.GameArchive;
+import chess.book.OpeningBookBuilder;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.San;
+
+// book <games.pgn|games.cga> <book.bin> [maxPly] [minGames]
+// builds an opening book from the first plies of the games of a PGN file or binary archive
+public class BookProgram {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: BookProgram <games.pgn|games.cga> <book.bin> [maxPly] [minGames]");
+			return;
+		}
+		Path input = Paths.get(args[0]);
+		int maxPly = (args.length > 2) ? Integer.parseInt(args[2]) : 20;
+		int minGames = (args.length > 3) ? Integer.parseInt(args[3]) : 2;
+		OpeningBookBuilder builder = new OpeningBookBuilder(maxPly, minGames);
+
+		long start = System.nanoTime();
+		if (input.toString().endsWith(".pgn")) {
+			addPgn(builder, input, maxPly);
+		} else {
+			try (GameArchive archive = new GameArchive(input)) {
+				builder.addArchive(archive);
+			}
+		}
+		int entries = builder.write(Paths.get(args[1]));
+		System.out.printf("%d games, %d positions, %d book entries in %.3f s%n", builder.getGames(),
+				builder.getPositions(), entries, (System.nanoTime() - start) / 1e9);
+	}
+
+	private static void addPgn(OpeningBookBuilder builder, Path path, int maxPly) throws IOException {
+		MoveList moves = new MoveList();
+		long[] keys = new long[maxPly];
+		int[] played = new int[maxPly];
+		try (Reader in = Files.newBufferedReader(path, StandardCharsets.ISO_8859_1); PgnReader reader = new PgnReader(in)) {
+			PgnGame game;
+			while ((game = reader.next()) != null) {
+				try {
+					String fen = game.getTag("FEN");
+					ChessMatch match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+					Color firstMover = match.getcurrentPlayer();
+					int plies = Math.min(maxPly, game.getMoves().size());
+					// the positions go to the builder as they are played, it does not replay the game
+					for (int ply = 0; ply < plies; ply++) {
+						keys[ply] = match.getHashKey();
+						played[ply] = San.parse(match, game.getMoves().get(ply), moves);
+						match.makeMove(played[ply]);
+					}
+					builder.addGame(keys, played, plies, firstMover, GameArchive.result(game.getResult()));
+				} catch (ChessExceptions e) {
+					// games with illegal moves stay out of the book
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package application;
+
+import java.util.Arrays;
+
+import chess.Attacks;
+import chess.ChessMatch;
+import chess.ParallelPerft;
+import chess.Perft;
+import chess.PerftCache;
+
+// perft                 runs the reference suite and fails on any mismatch
+// perft <depth> [fen]   prints divide counts for the start position or the given FEN
+// perft -parallel <depth> [fen]
+//                       counts serially, on all cores, and on all cores with a hash cache,
+//                       and reports the speedup of each against the serial count
+public class PerftProgram {
+
+	public static void main(String[] args) {
+		System.out.printf("Attack tables built in %.1f ms%n", Attacks.getInitializationNanos() / 1e6);
+
+		if (args.length == 0) {
+			runSuite();
+			return;
+		}
+
+		if (args[0].equals("-parallel")) {
+			runParallel(Integer.parseInt(args[1]), fen(args, 2));
+			return;
+		}
+
+		int depth = Integer.parseInt(args[0]);
+		String fen = fen(args, 1);
+		Perft perft = new Perft(new ChessMatch(fen));
+		long start = System.nanoTime();
+		long nodes = perft.divide(depth, System.out);
+		long elapsed = System.nanoTime() - start;
+		System.out.println();
+		report("Total", nodes, elapsed);
+	}
+
+	private static void runSuite() {
+		long totalNodes = 0;
+		long totalTime = 0;
+		for (int i = 0; i < Perft.REFERENCE_POSITIONS.length; i++) {
+			String fen = Perft.REFERENCE_POSITIONS[i];
+			long[] expected = Perft.REFERENCE_COUNTS[i];
+			System.out.println(fen);
+			for (int depth = 1; depth <= expected.length; depth++) {
+				Perft perft = new Perft(new ChessMatch(fen));
+				long start = System.nanoTime();
+				long nodes = perft.perft(depth);
+				long elapsed = System.nanoTime() - start;
+				if (nodes != expected[depth - 1]) {
+					System.out.println("  depth " + depth + ": " + nodes + " expected " + expected[depth - 1]);
+					System.err.println("PERFT MISMATCH");
+					System.exit(1);
+				}
+				report("  depth " + depth, nodes, elapsed);
+				totalNodes += nodes;
+				totalTime += elapsed;
+			}
+		}
+		System.out.println();
+		report("All positions passed", totalNodes, totalTime);
+	}
+
+	private static void runParallel(int depth, String fen) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		ChessMatch match = new ChessMatch(fen);
+
+		long start = System.nanoTime();
+		long serial = new Perft(match).perft(depth);
+		long serialTime = System.nanoTime() - start;
+		report("Serial", serial, serialTime);
+
+		start = System.nanoTime();
+		long parallel = new ParallelPerft(match, threads).perft(depth);
+		long parallelTime = System.nanoTime() - start;
+		report(threads + " threads", parallel, parallelTime);
+
+		start = System.nanoTime();
+		long cached = new ParallelPerft(match, threads, new PerftCache(256)).perft(depth);
+		long cachedTime = System.nanoTime() - start;
+		report(threads + " threads, hash cache", cached, cachedTime);
+
+		if (parallel != serial || cached != serial) {
+			System.err.println("PERFT MISMATCH");
+			System.exit(1);
+		}
+		System.out.printf("Speedup: %.2fx parallel, %.2fx with hash cache%n", (double) serialTime / parallelTime,
+				(double) serialTime / cachedTime);
+	}
+
+	private static String fen(String[] args, int from) {
+		return (args.length > from) ? String.join(" ", Arrays.copyOfRange(args, from, args.length))
+				: Perft.START_POSITION;
+	}
+
+	private static void report(String label, long nodes, long nanos) {
+		System.out.printf("%s: %d nodes in %.3f s (%.0f nodes/s)%n", label, nodes, nanos / 1e9,
+				nodes / Math.max(nanos / 1e9, 1e-9));
+	}
+}
@@ -0,0 +1,42 @@
+package application;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import chess.pgn.PgnReplayer;
+import chess.pgn.ReplayError;
+import chess.pgn.ReplayReport;
+
+// pgn <file> [threads]   replays every game of the file and reports games/s and the failing games
+public class PgnProgram {
+
+	private static final int SHOWN_ERRORS = 20;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: PgnProgram <file.pgn> [threads]");
+			return;
+		}
+		int threads = (args.length > 1) ? Integer.parseInt(args[1])
+				: Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+		PgnReplayer replayer = new PgnReplayer(threads, 1024);
+		ReplayReport report;
+		try (Reader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.ISO_8859_1)) {
+			report = replayer.replay(in);
+		}
+
+		System.out.println(report);
+		int shown = 0;
+		for (ReplayError error : report.getErrors()) {
+			if (shown++ == SHOWN_ERRORS) {
+				System.out.println("... " + (report.getFailedGames() - SHOWN_ERRORS) + " more");
+				break;
+			}
+			System.out.println(error);
+		}
+	}
+}
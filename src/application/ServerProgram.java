@@ -0,0 +1,140 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import chess.server.LatencyHistogram;
+import chess.server.MatchServer;
+
+// server [port]
+//   hosts matches until stopped, printing its counters every ten seconds
+// server -load <clients> <games> [port]
+//   plays random games from many clients at once, against a server on the port or an
+//   in-process one, and prints matches per second and move latencies
+public class ServerProgram {
+
+	private static final int MAX_PLIES = 400;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("-load")) {
+			if (args.length < 3) {
+				System.out.println("Usage: ServerProgram -load <clients> <games> [port]");
+				return;
+			}
+			load(Integer.parseInt(args[1]), Integer.parseInt(args[2]), (args.length > 3) ? Integer.parseInt(args[3]) : -1);
+			return;
+		}
+		try (MatchServer server = new MatchServer((args.length > 0) ? Integer.parseInt(args[0]) : 7878)) {
+			server.start();
+			System.out.println("Serving matches on port " + server.getPort());
+			while (true) {
+				Thread.sleep(10_000);
+				System.out.println(server.getStats());
+			}
+		}
+	}
+
+	private static void load(int clients, int games, int port) throws Exception {
+		MatchServer local = null;
+		if (port < 0) {
+			local = new MatchServer(0);
+			local.start();
+			port = local.getPort();
+		}
+		int serverPort = port;
+		LatencyHistogram roundTrips = new LatencyHistogram();
+		AtomicLong played = new AtomicLong();
+		AtomicLong failed = new AtomicLong();
+
+		long start = System.nanoTime();
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int c = 0; c < clients; c++) {
+				int share = games / clients + ((c < games % clients) ? 1 : 0);
+				executor.execute(() -> {
+					try {
+						playGames(serverPort, share, roundTrips);
+						played.addAndGet(share);
+					} catch (IOException | RuntimeException e) {
+						failed.incrementAndGet();
+						System.err.println("Client failed: " + e.getMessage());
+					}
+				});
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+
+		System.out.printf("%d clients, %d games in %.3f s, %.1f games/s, %d clients failed%n", clients, played.get(),
+				seconds, played.get() / seconds, failed.get());
+		System.out.printf("move round trip: %d moves, p50 %d us, p90 %d us, p99 %d us, p99.9 %d us%n",
+				roundTrips.getCount(), roundTrips.percentile(0.5) / 1000, roundTrips.percentile(0.9) / 1000,
+				roundTrips.percentile(0.99) / 1000, roundTrips.percentile(0.999) / 1000);
+		try (Connection connection = new Connection(serverPort)) {
+			System.out.println("server: " + connection.request("stats"));
+		}
+		if (local != null) {
+			local.close();
+		}
+	}
+
+	// one connection playing random legal moves until each game ends or runs too long
+	private static void playGames(int port, int games, LatencyHistogram roundTrips) throws IOException {
+		try (Connection connection = new Connection(port)) {
+			for (int g = 0; g < games; g++) {
+				String id = connection.request("new");
+				String result = "*";
+				for (int ply = 0; ply < MAX_PLIES && result.equals("*"); ply++) {
+					String[] moves = connection.request("moves " + id).split(" ");
+					String move = moves[ThreadLocalRandom.current().nextInt(moves.length)];
+					long sent = System.nanoTime();
+					String answer = connection.request("move " + id + " " + move);
+					roundTrips.record(System.nanoTime() - sent);
+					result = answer.substring(answer.lastIndexOf(' ') + 1);
+				}
+				connection.request("close " + id);
+			}
+		}
+	}
+
+	private static class Connection implements Closeable {
+
+		private Socket socket;
+		private BufferedReader in;
+		private Writer out;
+
+		Connection(int port) throws IOException {
+			socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			socket.setTcpNoDelay(true);
+			in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+		}
+
+		// the answer without its "ok"
+		String request(String line) throws IOException {
+			out.write(line);
+			out.write('\n');
+			out.flush();
+			String answer = in.readLine();
+			if (answer == null || !answer.startsWith("ok")) {
+				throw new IOException("Request " + line + " answered " + answer);
+			}
+			return (answer.length() > 3) ? answer.substring(3) : "";
+		}
+
+		@Override
+		public void close() throws IOException {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package application;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import chess.tablebase.EndgameTable;
+import chess.tablebase.Tablebase;
+import chess.tablebase.TablebaseGenerator;
+
+// tablebase <directory> [-threads n] <material>...
+// generates endgame tables such as KQvK, KRvK, KPvK or KQvKR, with the smaller tables they need
+public class TablebaseProgram {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: TablebaseProgram <directory> [-threads n] <material>...");
+			return;
+		}
+		Path directory = Paths.get(args[0]);
+		Files.createDirectories(directory);
+		int threads = Runtime.getRuntime().availableProcessors();
+		int first = 1;
+		if (args[1].equals("-threads")) {
+			threads = Integer.parseInt(args[2]);
+			first = 3;
+		}
+
+		Tablebase tablebase = new Tablebase(directory);
+		TablebaseGenerator generator = new TablebaseGenerator(tablebase, directory, threads);
+		for (int i = first; i < args.length; i++) {
+			long start = System.nanoTime();
+			EndgameTable table = generator.generate(args[i]);
+			printSummary(table, (System.nanoTime() - start) / 1e9);
+		}
+	}
+
+	private static void printSummary(EndgameTable table, double seconds) {
+		long wins = 0;
+		long losses = 0;
+		int longest = 0;
+		for (int i = 0; i < table.size(); i++) {
+			int value = table.get(i);
+			if (Tablebase.isWin(value)) {
+				wins++;
+				longest = Math.max(longest, Tablebase.getDistance(value));
+			} else if (Tablebase.isLoss(value)) {
+				losses++;
+			}
+		}
+		System.out.printf("%s: %d entries of %d bits, %d wins, %d losses, longest mate %d moves, %.3f s%n",
+				table.getSignature(), table.size(), table.getBits(), wins, losses, (longest + 1) / 2, seconds);
+	}
+}
@@ -10,6 +10,9 @@ import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
 import chess.Color;
+import chess.archive.GameArchive;
+import chess.book.OpeningBook;
+import chess.tablebase.Tablebase;
 
 public class UI {
 
@@ -38,7 +41,7 @@ public class UI {
 			String columnSelect = sc.nextLine();
 			char column = columnSelect.charAt(0);
 			int row = Integer.parseInt(columnSelect.substring(1));
-			return new ChessPosition(column, row);
+			return ChessPosition.valueOf(column, row);
 		} catch (Exception e) {
 			throw new InputMismatchException("Error on reading ChessPosition: Valid values are from a1 to h8!");
 		}
@@ -52,7 +55,12 @@ public class UI {
 		System.out.println();
 
 		System.out.println("Turn : " + chessMatch.getTurn());
-		if (!chessMatch.getCheckMate()) {
+		System.out.printf("Material: white %.1f, black %.1f, evaluation %+.2f%n",
+				chessMatch.getMaterial(Color.WHITE) / 100.0, chessMatch.getMaterial(Color.BLACK) / 100.0,
+				chessMatch.getEvaluation() / 100.0);
+		if (chessMatch.getStaleMate()) {
+			System.out.println("STALEMATE");
+		} else if (!chessMatch.getCheckMate()) {
 
 			System.out.println("Waiting player: " + chessMatch.getcurrentPlayer());
 			if (chessMatch.getCheck()) {
@@ -64,6 +72,37 @@ public class UI {
 		}
 	}
 
+	// the book moves of the position with their share of the weight
+	public static void printBookMoves(ChessMatch chessMatch, OpeningBook book) {
+		int[] moves = new int[8];
+		int[] weights = new int[8];
+		int count = book.getMoves(chessMatch.getHashKey(), moves, weights);
+		if (count == 0) {
+			return;
+		}
+		int total = Math.max(1, Arrays.stream(weights, 0, count).sum());
+		StringBuilder sb = new StringBuilder("Book moves:");
+		for (int i = 0; i < count; i++) {
+			sb.append(' ').append(GameArchive.moveToString(moves[i])).append(" (").append(weights[i] * 100 / total).append("%)");
+		}
+		System.out.println(sb);
+	}
+
+	// the exact result once few enough pieces are left
+	public static void printTablebase(ChessMatch chessMatch, Tablebase tablebase) {
+		int value = tablebase.probe(chessMatch);
+		if (value == Tablebase.UNKNOWN) {
+			return;
+		}
+		if (value == Tablebase.DRAW) {
+			System.out.println("Tablebase: draw");
+			return;
+		}
+		Color winner = Tablebase.isWin(value) ? chessMatch.getcurrentPlayer()
+				: (chessMatch.getcurrentPlayer() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		System.out.println("Tablebase: " + winner + " mates in " + (Tablebase.getDistance(value) + 1) / 2);
+	}
+
 	public static void printBoard(ChessPiece[][] pieces) {
 		for (int i = 0; i < pieces.length; i++) {
 			System.out.print((8 - i) + " ");
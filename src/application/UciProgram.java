@@ -0,0 +1,369 @@
+package application;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.book.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.Search;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.tablebase.Tablebase;
+
+// The engine over the UCI protocol on stdin and stdout, for GUIs and tournament
+// managers. A reader thread queues the input lines, so "stop" and "isready" are
+// answered while a search runs on a thread of its own.
+//
+// "position" keeps the match of the previous command when the new one only adds
+// moves to it, or takes back a few of them, instead of replaying the whole game.
+public class UciProgram {
+
+	private static final String END = "\u0000end";
+
+	private BlockingQueue<String> input = new LinkedBlockingQueue<>();
+
+	private int hashMegabytes = 64;
+	private int threads = 1;
+	private OpeningBook book;
+	private Tablebase tablebase;
+	private TranspositionTable table;
+
+	// the position as last set up, the starting FEN (null for startpos) and the moves after it
+	private ChessMatch match;
+	private String baseFen;
+	private List<String> moves = new ArrayList<>();
+	private MoveList legal = new MoveList();
+
+	private ParallelSearch search;
+	private ParallelSearch running;
+	private Thread searcher;
+	private CountDownLatch stopped;
+
+	public static void main(String[] args) throws InterruptedException {
+		new UciProgram().run();
+	}
+
+	private void run() throws InterruptedException {
+		Thread reader = new Thread(() -> {
+			try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+				String line;
+				while ((line = in.readLine()) != null) {
+					input.put(line);
+				}
+			} catch (IOException | InterruptedException e) {
+				// no more input either way
+			}
+			input.add(END);
+		}, "uci-input");
+		reader.setDaemon(true);
+		reader.start();
+
+		table = new TranspositionTable(hashMegabytes);
+		setPosition(null, new ArrayList<>());
+
+		while (true) {
+			String line = input.take().trim();
+			if (line.equals(END) || line.equals("quit")) {
+				stopSearch();
+				return;
+			}
+			try {
+				handle(line);
+			} catch (ChessExceptions | IllegalArgumentException | IndexOutOfBoundsException | IOException e) {
+				send("info string " + e.getMessage());
+			}
+		}
+	}
+
+	private void handle(String line) throws IOException {
+		String[] words = line.split("\\s+");
+		switch (words[0]) {
+		case "uci":
+			send("id name chess-system-java");
+			send("id author Vhutuy");
+			send("option name Hash type spin default 64 min 1 max 4096");
+			send("option name Threads type spin default 1 min 1 max 256");
+			send("option name BookFile type string default <empty>");
+			send("option name TablebasePath type string default <empty>");
+			send("uciok");
+			break;
+		case "isready":
+			send("readyok");
+			break;
+		case "setoption":
+			waitForSearch();
+			setOption(line);
+			break;
+		case "ucinewgame":
+			waitForSearch();
+			table.clear();
+			break;
+		case "position":
+			waitForSearch();
+			position(words);
+			break;
+		case "go":
+			waitForSearch();
+			go(words);
+			break;
+		case "stop":
+			stopSearch();
+			break;
+		case "ponderhit":
+			break;
+		default:
+			send("info string Unknown command: " + words[0]);
+		}
+	}
+
+	// position [startpos | fen <six fields>] [moves <move>...]
+	private void position(String[] words) {
+		int i = 1;
+		String fen = null;
+		if (i < words.length && words[i].equals("fen")) {
+			StringBuilder sb = new StringBuilder();
+			for (i++; i < words.length && !words[i].equals("moves"); i++) {
+				sb.append((sb.length() > 0) ? " " : "").append(words[i]);
+			}
+			fen = sb.toString();
+		} else if (i < words.length && words[i].equals("startpos")) {
+			i++;
+		}
+		List<String> newMoves = new ArrayList<>();
+		if (i < words.length && words[i].equals("moves")) {
+			newMoves.addAll(Arrays.asList(words).subList(i + 1, words.length));
+		}
+
+		if (fen == null ? baseFen != null : !fen.equals(baseFen)) {
+			setPosition(fen, newMoves);
+			return;
+		}
+		// same start: take back to the common moves, then play the new ones
+		int common = 0;
+		while (common < moves.size() && common < newMoves.size() && moves.get(common).equals(newMoves.get(common))) {
+			common++;
+		}
+		while (moves.size() > common) {
+			match.undoMove();
+			moves.remove(moves.size() - 1);
+		}
+		for (String move : newMoves.subList(common, newMoves.size())) {
+			play(move);
+		}
+	}
+
+	private void setPosition(String fen, List<String> newMoves) {
+		match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+		baseFen = fen;
+		moves.clear();
+		search = null;
+		for (String move : newMoves) {
+			play(move);
+		}
+	}
+
+	private void play(String text) {
+		match.legalMoves(legal);
+		int move = Move.find(legal, text);
+		if (move == Move.NONE) {
+			throw new ChessExceptions("Illegal move: " + text);
+		}
+		match.makeMove(move);
+		moves.add(text);
+	}
+
+	// go [depth d] [movetime ms] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo n] [nodes n] [infinite]
+	private void go(String[] words) {
+		int depth = SearchLimits.MAX_DEPTH;
+		long nodes = 0;
+		long moveTime = 0;
+		long time = -1;
+		long increment = 0;
+		int movesToGo = 30;
+		boolean infinite = false;
+		boolean white = match.getcurrentPlayer() == Color.WHITE;
+		for (int i = 1; i < words.length; i++) {
+			switch (words[i]) {
+			case "depth":
+				depth = Math.min(SearchLimits.MAX_DEPTH, Integer.parseInt(value(words, ++i)));
+				break;
+			case "nodes":
+				nodes = Long.parseLong(value(words, ++i));
+				break;
+			case "movetime":
+				moveTime = Long.parseLong(value(words, ++i));
+				break;
+			case "wtime":
+			case "btime":
+				long clock = Long.parseLong(value(words, ++i));
+				if (words[i - 1].equals(white ? "wtime" : "btime")) {
+					time = clock;
+				}
+				break;
+			case "winc":
+			case "binc":
+				long inc = Long.parseLong(value(words, ++i));
+				if (words[i - 1].equals(white ? "winc" : "binc")) {
+					increment = inc;
+				}
+				break;
+			case "movestogo":
+				movesToGo = Math.max(1, Integer.parseInt(value(words, ++i)));
+				break;
+			case "infinite":
+				infinite = true;
+				break;
+			default:
+				// ponder, searchmoves and mate are not supported
+			}
+		}
+		if (time >= 0 && moveTime == 0) {
+			// a share of the clock, never so much that the flag falls
+			moveTime = Math.max(1, Math.min(time / movesToGo + increment * 3 / 4, time - 50));
+		}
+		SearchLimits limits = new SearchLimits(depth, nodes, moveTime);
+		boolean waitForStop = infinite;
+
+		if (search == null) {
+			search = new ParallelSearch(match, threads, table);
+			search.setBook(book);
+			search.setTablebase(tablebase);
+			search.getMainSearch().setListener(this::info);
+		}
+		ParallelSearch current = search;
+		// a "stop" may come before the thread below gets going, it must still end this search
+		current.resetStop();
+		running = current;
+		stopped = new CountDownLatch(1);
+		CountDownLatch stop = stopped;
+		searcher = new Thread(() -> {
+			SearchResult result = current.search(limits);
+			if (waitForStop) {
+				// "go infinite" answers only after "stop"
+				try {
+					stop.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			bestMove(result);
+		}, "uci-search");
+		searcher.start();
+	}
+
+	private void info(SearchResult result) {
+		int score = result.getScore();
+		String value;
+		if (Math.abs(score) >= Search.MATE - Search.MAX_PLY) {
+			int plies = Search.MATE - Math.abs(score);
+			value = "mate " + ((score > 0) ? (plies + 1) / 2 : -(plies / 2));
+		} else {
+			value = "cp " + score;
+		}
+		StringBuilder pv = new StringBuilder();
+		for (int move : result.getPrincipalVariation()) {
+			pv.append(' ').append(Move.toString(move));
+		}
+		send("info depth " + result.getDepth() + " score " + value + " nodes " + result.getNodes() + " nps "
+				+ result.getNodesPerSecond() + " time " + result.getNanos() / 1_000_000 + " hashfull "
+				+ table.hashfull() + " pv" + pv);
+	}
+
+	private void bestMove(SearchResult result) {
+		int[] pv = (result != null) ? result.getPrincipalVariation() : new int[0];
+		if (pv.length == 0) {
+			// no legal move, the GUI knows the game is over
+			send("bestmove 0000");
+		} else if (pv.length > 1) {
+			send("bestmove " + Move.toString(pv[0]) + " ponder " + Move.toString(pv[1]));
+		} else {
+			send("bestmove " + Move.toString(pv[0]));
+		}
+	}
+
+	// the value after a "go" keyword, missing when the line ends early
+	private static String value(String[] words, int i) {
+		if (i >= words.length) {
+			throw new IllegalArgumentException("Missing value for " + words[i - 1]);
+		}
+		return words[i];
+	}
+
+	// setoption name <name> [value <value>]
+	private void setOption(String line) throws IOException {
+		int nameAt = line.indexOf(" name ");
+		if (nameAt < 0) {
+			return;
+		}
+		int valueAt = line.indexOf(" value ");
+		String name = (valueAt < 0) ? line.substring(nameAt + 6).trim() : line.substring(nameAt + 6, valueAt).trim();
+		String value = (valueAt < 0) ? "" : line.substring(valueAt + 7).trim();
+		boolean empty = value.isEmpty() || value.equals("<empty>");
+		switch (name.toLowerCase()) {
+		case "hash":
+			hashMegabytes = Integer.parseInt(value);
+			table = new TranspositionTable(hashMegabytes);
+			break;
+		case "threads":
+			threads = Integer.parseInt(value);
+			break;
+		case "bookfile":
+			if (book != null) {
+				book.close();
+			}
+			book = empty ? null : new OpeningBook(Paths.get(value));
+			break;
+		case "tablebasepath":
+			tablebase = empty ? null : new Tablebase(Paths.get(value));
+			break;
+		default:
+			send("info string Unknown option: " + name);
+			return;
+		}
+		// the next "go" sets up a search with the new settings
+		search = null;
+	}
+
+	private void stopSearch() {
+		if (searcher != null) {
+			running.stop();
+			stopped.countDown();
+			waitForSearch();
+		}
+	}
+
+	// a new command about the position waits for the running search to answer
+	private void waitForSearch() {
+		if (searcher == null) {
+			return;
+		}
+		try {
+			searcher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		searcher = null;
+	}
+
+	private static void send(String line) {
+		synchronized (System.out) {
+			System.out.println(line);
+			System.out.flush();
+		}
+	}
+}
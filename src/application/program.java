@@ -1,5 +1,7 @@
 package application;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
@@ -9,20 +11,67 @@ import chess.ChessExceptions;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.ChessPosition;
+import chess.Color;
+import chess.Move;
+import chess.book.OpeningBook;
+import chess.engine.ParallelSearch;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import chess.tablebase.Tablebase;
 
 public class program {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
 		Scanner sc = new Scanner(System.in);
 		ChessMatch chessMatch = new ChessMatch();
 		List<ChessPiece> captured = new ArrayList<>();
 
-		while (!chessMatch.getCheckMate()) {
+		// program [white|black|none] [millis] [threads] [book|-] [tablebases] lets the engine play one side
+		Color engineColor = (args.length > 0 && !args[0].equalsIgnoreCase("none"))
+				? Color.valueOf(args[0].toUpperCase()) : null;
+		long engineMillis = (args.length > 1) ? Long.parseLong(args[1]) : 2000;
+		int engineThreads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		OpeningBook book = (args.length > 3 && !args[3].equals("-")) ? new OpeningBook(Paths.get(args[3])) : null;
+		Tablebase tablebase = (args.length > 4) ? new Tablebase(Paths.get(args[4])) : null;
+		// two players at the console need no search, nor its table
+		ParallelSearch search = null;
+		if (engineColor != null) {
+			search = new ParallelSearch(chessMatch, engineThreads, new TranspositionTable(64));
+			search.setBook(book);
+			search.setTablebase(tablebase);
+		}
+		String engineLine = null;
+
+		while (!chessMatch.getCheckMate() && !chessMatch.getStaleMate() && !isTablebaseDraw(chessMatch, tablebase)) {
 			try {
 				UI.clearScreen();
 
 				UI.printMatch(chessMatch, captured);
+				if (engineLine != null) {
+					System.out.println(engineLine);
+				}
+				if (book != null) {
+					UI.printBookMoves(chessMatch, book);
+				}
+				if (tablebase != null) {
+					UI.printTablebase(chessMatch, tablebase);
+				}
 				System.out.println();
+
+				if (chessMatch.getcurrentPlayer() == engineColor) {
+					SearchResult result = search.search(SearchLimits.time(engineMillis));
+					engineLine = "Engine: " + result;
+					ChessPiece capturedChessPiece = chessMatch.performeChessMove(result.getSource(), result.getTarget());
+					if (capturedChessPiece != null) {
+						captured.add(capturedChessPiece);
+					}
+					if (chessMatch.getPromoted() != null) {
+						chessMatch.replacePromotedPiece(Move.toString(result.getBestMove()).substring(4));
+					}
+					continue;
+				}
+
 				System.out.print("Source: ");
 				ChessPosition source = UI.readChessPosition(sc);
 
@@ -63,7 +112,16 @@ public class program {
 		}
 		UI.clearScreen();
 		UI.printMatch(chessMatch, captured);
+		if (isTablebaseDraw(chessMatch, tablebase)) {
+			System.out.println("DRAW (tablebase)");
+		}
+
+	}
 
+	// a drawn ending needs no more moves
+	private static boolean isTablebaseDraw(ChessMatch chessMatch, Tablebase tablebase) {
+		return tablebase != null && !chessMatch.getCheckMate() && !chessMatch.getStaleMate()
+				&& tablebase.probe(chessMatch) == Tablebase.DRAW;
 	}
 
 }
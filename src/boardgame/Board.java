@@ -4,6 +4,7 @@ public class Board {
 	private int rows;
 	private int columns;
 	private Piece[][] pieces;
+	private Position[] positions;
 
 	public Board(int rows, int columns) {
 		if (rows < 1 && columns < 1) {
@@ -29,6 +30,26 @@ public class Board {
 		return pieces[row][column];
 	}
 
+	// square index: row * columns + column
+	public Piece piece(int square) {
+		return piece(getPosition(square));
+	}
+
+	// the board's own instance for the square, built on first use; subclasses with a
+	// shared table of their own override this and never build one
+	public Position getPosition(int square) {
+		if (square < 0 || square >= rows * columns) {
+			throw new BoardException("Position not on the board");
+		}
+		if (positions == null) {
+			positions = new Position[rows * columns];
+			for (int i = 0; i < positions.length; i++) {
+				positions[i] = new Position(i / columns, i % columns);
+			}
+		}
+		return positions[square];
+	}
+
 	public Piece piece(Position position) {
 		if (!positionExists(position)) {
 			throw new BoardException("Position not on the board");
@@ -60,6 +81,14 @@ public class Board {
 		return piece(position) != null;
 	}
 	
+	public void placePeice(Piece piece, int square) {
+		placePeice(piece, getPosition(square));
+	}
+
+	public Piece removePiece(int square) {
+		return removePiece(getPosition(square));
+	}
+
 	public Piece removePiece(Position position) {
 		if (!positionExists(position)) {
 			throw new BoardException("Position not on the board");
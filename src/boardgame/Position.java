@@ -1,9 +1,10 @@
 package boardgame;
 
+// Immutable, so boards hand out one shared instance per square
 public class Position {
 
-	private int row;
-	private int colum;
+	private final int row;
+	private final int colum;
 
 	public Position(int row, int colum) {
 		this.row = row;
@@ -14,23 +15,10 @@ public class Position {
 		return row;
 	}
 
-	public void setRow(int row) {
-		this.row = row;
-	}
-
 	public int getColum() {
 		return colum;
 	}
 
-	public void setColum(int colum) {
-		this.colum = colum;
-	}
-
-	public void setValues(int row, int column) {
-		this.row = row;
-		this.colum = column;
-	}
-
 	@Override
 	public String toString() {
 		return row + ", " + colum;
@@ -0,0 +1,209 @@
+package chess;
+
+import boardgame.Board;
+import boardgame.BoardException;
+import boardgame.Piece;
+import boardgame.Position;
+
+public class BitBoard extends Board {
+
+	public static final int SIZE = 8;
+
+	private static final Position[] POSITIONS = new Position[SIZE * SIZE];
+
+	static {
+		for (int square = 0; square < POSITIONS.length; square++) {
+			POSITIONS[square] = new Position(square / SIZE, square % SIZE);
+		}
+	}
+
+	private long[] colors = new long[Color.values().length];
+	private long[] types = new long[PieceType.values().length];
+	private long occupied;
+	private long pieceKey;
+
+	// Evaluation sums, kept up to date as pieces come and go
+	private int middlegameScore;
+	private int endgameScore;
+	private int phase;
+	private int[] material = new int[Color.values().length];
+
+	// per color and type, enough for two originals plus eight promoted pawns
+	static final int MAX_PIECES = 10;
+
+	private ChessPiece[][][] pieceList = new ChessPiece[Color.values().length][PieceType.values().length][MAX_PIECES];
+	private int[][] pieceCount = new int[Color.values().length][PieceType.values().length];
+	private int[] kingSquares = { -1, -1 };
+
+	public BitBoard() {
+		super(SIZE, SIZE);
+	}
+
+	// square index: row * 8 + column, so bit 0 is a8 and bit 63 is h1
+	public static int square(Position position) {
+		return position.getRow() * SIZE + position.getColum();
+	}
+
+	public static int square(int row, int column) {
+		return row * SIZE + column;
+	}
+
+	// shared instance per square
+	public static Position position(int square) {
+		return POSITIONS[square];
+	}
+
+	@Override
+	public Position getPosition(int square) {
+		if (square < 0 || square >= POSITIONS.length) {
+			throw new BoardException("Position not on the board");
+		}
+		return POSITIONS[square];
+	}
+
+	public long getOccupied() {
+		return occupied;
+	}
+
+	public long getPieces(Color color) {
+		return colors[color.ordinal()];
+	}
+
+	public long getPieces(PieceType type) {
+		return types[type.ordinal()];
+	}
+
+	public long getPieces(Color color, PieceType type) {
+		return colors[color.ordinal()] & types[type.ordinal()];
+	}
+
+	// Zobrist key of the piece placement only
+	public long getPieceKey() {
+		return pieceKey;
+	}
+
+	// for white, material and piece-square values of the middlegame
+	public int getMiddlegameScore() {
+		return middlegameScore;
+	}
+
+	public int getEndgameScore() {
+		return endgameScore;
+	}
+
+	public int getPhase() {
+		return phase;
+	}
+
+	// middlegame material of one side in centipawns
+	public int getMaterial(Color color) {
+		return material[color.ordinal()];
+	}
+
+	public int getPieceCount(Color color, PieceType type) {
+		return pieceCount[color.ordinal()][type.ordinal()];
+	}
+
+	public ChessPiece getPiece(Color color, PieceType type, int index) {
+		return pieceList[color.ordinal()][type.ordinal()][index];
+	}
+
+	// -1 when that king is not on the board
+	public int getKingSquare(Color color) {
+		return kingSquares[color.ordinal()];
+	}
+
+	// pieces of the given color attacking the square, sliders seen through the given occupancy
+	public long attackersOf(int square, Color color, long occupied) {
+		long queens = types[PieceType.QUEEN.ordinal()];
+		Color other = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		return colors[color.ordinal()] & ((Attacks.pawnAttacks(other, square) & types[PieceType.PAWN.ordinal()])
+				| (Attacks.knightAttacks(square) & types[PieceType.KNIGHT.ordinal()])
+				| (Attacks.kingAttacks(square) & types[PieceType.KING.ordinal()])
+				| (Attacks.bishopAttacks(square, occupied) & (types[PieceType.BISHOP.ordinal()] | queens))
+				| (Attacks.rookAttacks(square, occupied) & (types[PieceType.ROOK.ordinal()] | queens)));
+	}
+
+	// looks outward from the square: leapers first, then the sliding rays
+	public boolean isAttacked(int square, Color color) {
+		long them = colors[color.ordinal()];
+		Color other = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		if ((Attacks.knightAttacks(square) & types[PieceType.KNIGHT.ordinal()] & them) != 0) {
+			return true;
+		}
+		if ((Attacks.pawnAttacks(other, square) & types[PieceType.PAWN.ordinal()] & them) != 0) {
+			return true;
+		}
+		if ((Attacks.kingAttacks(square) & types[PieceType.KING.ordinal()] & them) != 0) {
+			return true;
+		}
+		long queens = types[PieceType.QUEEN.ordinal()] & them;
+		long diagonal = (types[PieceType.BISHOP.ordinal()] & them) | queens;
+		if (diagonal != 0 && (Attacks.bishopAttacks(square, occupied) & diagonal) != 0) {
+			return true;
+		}
+		long straight = (types[PieceType.ROOK.ordinal()] & them) | queens;
+		return straight != 0 && (Attacks.rookAttacks(square, occupied) & straight) != 0;
+	}
+
+	@Override
+	public void placePeice(Piece piece, Position position) {
+		super.placePeice(piece, position);
+		ChessPiece p = (ChessPiece) piece;
+		int c = p.getColor().ordinal();
+		int t = p.getType().ordinal();
+		long bit = 1L << square(position);
+		colors[c] |= bit;
+		types[t] |= bit;
+		occupied |= bit;
+		pieceKey ^= Zobrist.piece(p.getColor(), p.getType(), square(position));
+		middlegameScore += Evaluation.middlegame(p.getColor(), p.getType(), square(position));
+		endgameScore += Evaluation.endgame(p.getColor(), p.getType(), square(position));
+		phase += Evaluation.PHASE[t];
+		material[c] += Evaluation.MIDDLEGAME_MATERIAL[t];
+
+		p.listIndex = pieceCount[c][t]++;
+		pieceList[c][t][p.listIndex] = p;
+		if (p.getType() == PieceType.KING) {
+			kingSquares[c] = square(position);
+		}
+	}
+
+	@Override
+	public Piece removePiece(Position position) {
+		Piece piece = super.removePiece(position);
+		if (piece != null) {
+			ChessPiece p = (ChessPiece) piece;
+			int c = p.getColor().ordinal();
+			int t = p.getType().ordinal();
+			long bit = ~(1L << square(position));
+			colors[c] &= bit;
+			types[t] &= bit;
+			occupied &= bit;
+			pieceKey ^= Zobrist.piece(p.getColor(), p.getType(), square(position));
+			middlegameScore -= Evaluation.middlegame(p.getColor(), p.getType(), square(position));
+			endgameScore -= Evaluation.endgame(p.getColor(), p.getType(), square(position));
+			phase -= Evaluation.PHASE[t];
+			material[c] -= Evaluation.MIDDLEGAME_MATERIAL[t];
+
+			// swap the last entry into the hole
+			int last = --pieceCount[c][t];
+			ChessPiece moved = pieceList[c][t][last];
+			pieceList[c][t][p.listIndex] = moved;
+			moved.listIndex = p.listIndex;
+			pieceList[c][t][last] = null;
+			if (p.getType() == PieceType.KING) {
+				kingSquares[c] = -1;
+			}
+		}
+		return piece;
+	}
+
+	@Override
+	public boolean threIsAPiece(Position position) {
+		if (!positionExists(position)) {
+			throw new BoardException("Position not on the board");
+		}
+		return (occupied & (1L << square(position))) != 0;
+	}
+}
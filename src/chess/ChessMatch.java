@@ -1,10 +1,10 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.PrimitiveIterator;
 
-import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
 import chess.pieces.Bishop;
@@ -18,20 +18,192 @@ public class ChessMatch {
 
 	private int turn;
 	private Color currentPlayer;
-	private Board board;
+	private BitBoard board;
 	private boolean check;
-	private boolean checkMate;
 	private ChessPiece enPassantVulnerable;
 	private ChessPiece promoted;
 
-	private List<Piece> piecesOnTheBoard = new ArrayList<>();
 	private List<Piece> CapturedPieces = new ArrayList<>();
 
+	private int halfMoveClock;
+
+	// FEN the match started from, null for the standard starting position
+	private String startFen;
+
+	private long[] keyHistory = new long[256];
+	private int historySize;
+
+	private MoveRecord[] records = new MoveRecord[0];
+	private int recordSize;
+
+	private MoveGenerator generator;
+	private MoveList moveBuffer = new MoveList();
+	private int[] targetMoves = new int[4];
+	private LegalMoveCache moveCache = new LegalMoveCache(LegalMoveCache.DEFAULT_CAPACITY);
+
+	// what undoMove() needs to take a move back
+	private static class MoveRecord {
+		int move;
+		Piece captured;
+		ChessPiece pawn;
+		ChessPiece enPassantVulnerable;
+		int halfMoveClock;
+		boolean check;
+	}
+
 	public ChessMatch() {
-		board = new Board(8, 8);
+		board = new BitBoard();
+		generator = new MoveGenerator(board);
 		turn = 1;
 		currentPlayer = Color.WHITE;
 		initialSetup();
+		pushKey();
+	}
+
+	// board, side to move, castling rights, en passant target and the optional move counters
+	public ChessMatch(String fen) {
+		board = new BitBoard();
+		generator = new MoveGenerator(board);
+		setupFromFen(fen);
+		startFen = fen;
+		pushKey();
+		updateMatchState();
+	}
+
+	// the position of a snapshot, its earlier moves and repetitions are not known
+	public ChessMatch(PositionSnapshot snapshot) {
+		board = new BitBoard();
+		generator = new MoveGenerator(board);
+		for (int square = 0; square < BitBoard.SIZE * BitBoard.SIZE; square++) {
+			long bit = 1L << square;
+			for (PieceType type : PieceType.values()) {
+				if ((snapshot.getPieces(type) & bit) != 0) {
+					Color color = ((snapshot.getPieces(Color.WHITE) & bit) != 0) ? Color.WHITE : Color.BLACK;
+					placeSetupPiece(type, color, square);
+				}
+			}
+		}
+		currentPlayer = snapshot.getSideToMove();
+		turn = snapshot.getTurn();
+		halfMoveClock = snapshot.getHalfMoveClock();
+		int rights = snapshot.getCastlingRights();
+		markMoved(Color.WHITE, (rights & Zobrist.WHITE_KINGSIDE) != 0, (rights & Zobrist.WHITE_QUEENSIDE) != 0);
+		markMoved(Color.BLACK, (rights & Zobrist.BLACK_KINGSIDE) != 0, (rights & Zobrist.BLACK_QUEENSIDE) != 0);
+		if (snapshot.getEnPassantSquare() >= 0) {
+			int behind = snapshot.getEnPassantSquare();
+			enPassantVulnerable = pieceAt(behind + ((currentPlayer == Color.WHITE) ? BitBoard.SIZE : -BitBoard.SIZE));
+		}
+		pushKey();
+		updateMatchState();
+		startFen = toFen();
+	}
+
+	// an independent copy of the current position, e.g. for another search thread;
+	// moves played before the copy cannot be taken back in it
+	public ChessMatch(ChessMatch other) {
+		board = new BitBoard();
+		generator = new MoveGenerator(board);
+		turn = other.turn;
+		currentPlayer = other.currentPlayer;
+		check = other.check;
+		halfMoveClock = other.halfMoveClock;
+		for (int square = 0; square < BitBoard.SIZE * BitBoard.SIZE; square++) {
+			ChessPiece piece = other.pieceAt(square);
+			if (piece != null) {
+				ChessPiece copy = newPiece(piece.getType(), piece.getColor());
+				copy.setMoveCount(piece.getMoveCount());
+				board.placePeice(copy, BitBoard.position(square));
+				if (piece == other.enPassantVulnerable) {
+					enPassantVulnerable = copy;
+				}
+				if (piece == other.promoted) {
+					promoted = copy;
+				}
+			}
+		}
+		keyHistory = Arrays.copyOf(other.keyHistory, other.keyHistory.length);
+		historySize = other.historySize;
+		startFen = (other.recordSize == 0) ? other.startFen : toFen();
+	}
+
+	// an immutable copy of the current position that other threads may read
+	public PositionSnapshot snapshot() {
+		int enPassantSquare = -1;
+		if (enPassantVulnerable != null && enPassantVulnerable.getSquare() >= 0) {
+			int square = enPassantVulnerable.getSquare();
+			enPassantSquare = square + ((enPassantVulnerable.getColor() == Color.WHITE) ? BitBoard.SIZE : -BitBoard.SIZE);
+		}
+		return new PositionSnapshot(board, currentPlayer, castlingRights(), enPassantSquare, halfMoveClock, turn,
+				getHashKey());
+	}
+
+	// the current position with the move counters, castling rights as the move counts allow
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(90);
+		for (int row = 0; row < BitBoard.SIZE; row++) {
+			int empty = 0;
+			for (int column = 0; column < BitBoard.SIZE; column++) {
+				ChessPiece piece = (ChessPiece) board.piece(row, column);
+				if (piece == null) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append((char) ('0' + empty));
+					empty = 0;
+				}
+				char c = "PNBRQK".charAt(piece.getType().ordinal());
+				sb.append((piece.getColor() == Color.WHITE) ? c : Character.toLowerCase(c));
+			}
+			if (empty > 0) {
+				sb.append((char) ('0' + empty));
+			}
+			if (row < BitBoard.SIZE - 1) {
+				sb.append('/');
+			}
+		}
+
+		sb.append((currentPlayer == Color.WHITE) ? " w " : " b ");
+		int rights = castlingRights();
+		if (rights == 0) {
+			sb.append('-');
+		}
+		if ((rights & Zobrist.WHITE_KINGSIDE) != 0) {
+			sb.append('K');
+		}
+		if ((rights & Zobrist.WHITE_QUEENSIDE) != 0) {
+			sb.append('Q');
+		}
+		if ((rights & Zobrist.BLACK_KINGSIDE) != 0) {
+			sb.append('k');
+		}
+		if ((rights & Zobrist.BLACK_QUEENSIDE) != 0) {
+			sb.append('q');
+		}
+
+		sb.append(' ');
+		if (enPassantVulnerable != null && enPassantVulnerable.getSquare() >= 0) {
+			int square = enPassantVulnerable.getSquare();
+			int behind = square + ((enPassantVulnerable.getColor() == Color.WHITE) ? BitBoard.SIZE : -BitBoard.SIZE);
+			sb.append(Move.squareName(behind));
+		} else {
+			sb.append('-');
+		}
+		sb.append(' ').append(halfMoveClock).append(' ').append((turn + 1) / 2);
+		return sb.toString();
+	}
+
+	public String getStartFen() {
+		return startFen;
+	}
+
+	// the moves played with makeMove or performeChessMove since the match started
+	public int[] getMoveHistory() {
+		int[] moves = new int[recordSize];
+		for (int i = 0; i < recordSize; i++) {
+			moves[i] = records[i].move;
+		}
+		return moves;
 	}
 
 	public int getTurn() {
@@ -46,8 +218,13 @@ public class ChessMatch {
 		return check;
 	}
 
+	// worked out on request from the position, so they hold after makeMove and undoMove too
 	public boolean getCheckMate() {
-		return checkMate;
+		return check && !hasAnyLegalMove();
+	}
+
+	public boolean getStaleMate() {
+		return !check && !hasAnyLegalMove();
 	}
 
 	public ChessPiece getEnPassantVulnerable() {
@@ -58,6 +235,75 @@ public class ChessMatch {
 		return promoted;
 	}
 
+	public int getHalfMoveClock() {
+		return halfMoveClock;
+	}
+
+	public long getHashKey() {
+		long key = board.getPieceKey() ^ Zobrist.castling(castlingRights());
+		if (currentPlayer == Color.BLACK) {
+			key ^= Zobrist.blackToMove();
+		}
+		int column = enPassantColumn();
+		if (column >= 0) {
+			key ^= Zobrist.enPassant(column);
+		}
+		return key;
+	}
+
+	public boolean isThreefoldRepetition() {
+		return repetitions(2) >= 2;
+	}
+
+	// true once the current position has occurred before, what a search treats as a draw
+	public boolean isRepetition() {
+		return repetitions(1) >= 1;
+	}
+
+	// centipawns for white, positive when white stands better
+	public int getEvaluation() {
+		return Evaluation.evaluate(board);
+	}
+
+	public int getMaterial(Color color) {
+		return board.getMaterial(color);
+	}
+
+	public int getPieceCount(Color color, PieceType type) {
+		return board.getPieceCount(color, type);
+	}
+
+	// pieces of both colors, kings included
+	public int getPieceCount() {
+		return Long.bitCount(board.getOccupied());
+	}
+
+	// bitboard of the pieces, square 0 is a8
+	public long getPieces(Color color, PieceType type) {
+		return board.getPieces(color, type);
+	}
+
+	// Zobrist.WHITE_KINGSIDE and friends
+	public int getCastlingRights() {
+		return castlingRights();
+	}
+
+	// only positions since the last capture or pawn move can repeat
+	private int repetitions(int enough) {
+		long key = keyHistory[historySize - 1];
+		int count = 0;
+		for (int i = historySize - 3; i >= 0 && i >= historySize - 1 - halfMoveClock && count < enough; i -= 2) {
+			if (keyHistory[i] == key) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public ChessPiece pieceAt(int square) {
+		return (ChessPiece) board.piece(square);
+	}
+
 	public ChessPiece[][] getPieces() {
 		ChessPiece[][] mat = new ChessPiece[board.getRows()][board.getColumns()];
 		for (int i = 0; i < board.getRows(); i++) {
@@ -69,57 +315,126 @@ public class ChessMatch {
 	}
 
 	public boolean[][] possibleMoves(ChessPosition initalPosition) {
-		Position position = initalPosition.toPosition();
-		validateSourcePosition(position);
-		return board.piece(position).possibleMoves();
+		return possibleMoves(initalPosition.getSquare());
+	}
+
+	public boolean[][] possibleMoves(int from) {
+		validateSourcePosition(from);
+		boolean[][] mat = new boolean[board.getRows()][board.getColumns()];
+		for (int move : cachedLegalMoves()) {
+			if (Move.getFrom(move) == from) {
+				mat[Move.getTo(move) / BitBoard.SIZE][Move.getTo(move) % BitBoard.SIZE] = true;
+			}
+		}
+		return mat;
+	}
+
+	public boolean isLegalMove(ChessPosition source, ChessPosition target) {
+		return findLegalMove(source.getSquare(), target.getSquare()) >= 0;
+	}
+
+	public boolean isLegalMove(int from, int to) {
+		return findLegalMove(from, to) >= 0;
+	}
+
+	// hits and misses of the legal moves the console turn asks for
+	public LegalMoveCache getMoveCache() {
+		return moveCache;
+	}
+
+	public boolean isSquareAttacked(ChessPosition position, Color color) {
+		return board.isAttacked(position.getSquare(), color);
+	}
+
+	public boolean isSquareAttacked(int square, Color color) {
+		return board.isAttacked(square, color);
+	}
+
+	// legal moves of the current player, written into a caller-owned list
+	public void legalMoves(MoveList moves) {
+		generateLegalMoves(currentPlayer, moves);
 	}
 
 	private void placePiece(char column, int row, ChessPiece piece) {
-		board.placePeice(piece, new ChessPosition(column, row).toPosition());
-		piecesOnTheBoard.add(piece);
+		board.placePeice(piece, ChessPosition.valueOf(column, row).getSquare());
 	}
 
 	public ChessPiece performeChessMove(ChessPosition initialPosition, ChessPosition targetPosition) {
-		Position initial = initialPosition.toPosition();
-		Position target = targetPosition.toPosition();
+		return performeChessMove(initialPosition.getSquare(), targetPosition.getSquare());
+	}
 
+	public ChessPiece performeChessMove(int initial, int target) {
 		validateSourcePosition(initial);
 		validateTargetPosition(initial, target);
 
-		Piece capturedPiece = makeMove(initial, target);
-
-		if (testCheck(currentPlayer)) {
-			undoMove(initial, target, capturedPiece);
-			throw new ChessExceptions("You can't put tourself in check!");
-		}
+		int move = findLegalMove(initial, target);
+		ChessPiece capturedPiece = makeMove(move);
 
-		ChessPiece movedPiece = (ChessPiece) board.piece(target);
+		// promotion :) queen first, the UI may replace it
+		promoted = Move.isPromotion(move) ? (ChessPiece) board.piece(target) : null;
+		updateMatchState();
 
-		check = (testCheck(opponent(currentPlayer))) ? true : false;
+		return capturedPiece;
+	}
 
-		// promotion :)
-		if (movedPiece instanceof Pawn) {
-			if (movedPiece.getColor() == Color.WHITE && target.getRow() == 0
-					|| movedPiece.getColor() == Color.BLACK && target.getRow() == 7) {
-				promoted = (ChessPiece) board.piece(target);
-				promoted = replacePromotedPiece("Q");
-			}
+	// plays a move from legalMoves, promotion included, and records how to take it back
+	public ChessPiece makeMove(int move) {
+		if (recordSize == records.length) {
+			records = Arrays.copyOf(records, Math.max(64, recordSize * 2));
 		}
+		if (records[recordSize] == null) {
+			records[recordSize] = new MoveRecord();
+		}
+		MoveRecord record = records[recordSize++];
+		record.move = move;
+		record.enPassantVulnerable = enPassantVulnerable;
+		record.halfMoveClock = halfMoveClock;
+		record.check = check;
+
+		Position initial = BitBoard.position(Move.getFrom(move));
+		Position target = BitBoard.position(Move.getTo(move));
+		Piece capturedPiece = makeMove(initial, target);
+		ChessPiece movedPiece = (ChessPiece) board.piece(target);
+		record.captured = capturedPiece;
+		record.pawn = null;
 
-		if (testCheckMate(opponent(currentPlayer))) {
-			checkMate = true;
+		if (Move.isPromotion(move)) {
+			record.pawn = movedPiece;
+			promote(movedPiece, Move.getPromotion(move));
 		}
+
+		enPassantVulnerable = ((Move.getFlags(move) & Move.DOUBLE_PUSH) != 0) ? movedPiece : null;
+		halfMoveClock = (movedPiece instanceof Pawn || capturedPiece != null) ? 0 : halfMoveClock + 1;
 		nextTurn();
+		pushKey();
+		check = testCheck(currentPlayer);
 
-		// En passant
-		if (movedPiece instanceof Pawn
-				&& (target.getRow() == initial.getRow() - 2 || target.getRow() == initial.getRow() + 2)) {
-			enPassantVulnerable = movedPiece;
-		} else {
-			enPassantVulnerable = null;
+		return (ChessPiece) capturedPiece;
+	}
+
+	// takes back the last makeMove(int)
+	public void undoMove() {
+		if (recordSize == 0) {
+			throw new IllegalStateException("There is no move to undo");
 		}
+		MoveRecord record = records[--recordSize];
+		Position initial = BitBoard.position(Move.getFrom(record.move));
+		Position target = BitBoard.position(Move.getTo(record.move));
 
-		return (ChessPiece) capturedPiece;
+		if (record.pawn != null) {
+			board.removePiece(target);
+			board.placePeice(record.pawn, target);
+		}
+		enPassantVulnerable = record.enPassantVulnerable;
+		undoMove(initial, target, record.captured);
+
+		halfMoveClock = record.halfMoveClock;
+		check = record.check;
+		historySize--;
+		previousTurn();
+		record.captured = null;
+		record.pawn = null;
+		record.enPassantVulnerable = null;
 	}
 
 	public ChessPiece replacePromotedPiece(String type) {
@@ -130,26 +445,52 @@ public class ChessMatch {
 			return promoted;
 		}
 
-		Position pos = promoted.getChessPosition().toPosition();
-		Piece p = board.removePiece(pos);
-		piecesOnTheBoard.remove(p);
+		promoted = promote(promoted, pieceType(type));
 
-		ChessPiece newPiece = newPiece(type, promoted.getColor());
+		// the move is already recorded, refresh what depends on the new piece
+		MoveRecord record = records[recordSize - 1];
+		record.move = Move.create(Move.getFrom(record.move), Move.getTo(record.move), Move.getFlags(record.move),
+				promoted.getType());
+		keyHistory[historySize - 1] = getHashKey();
+		updateMatchState();
+		return promoted;
+	}
+
+	private ChessPiece promote(ChessPiece piece, PieceType type) {
+		Position pos = BitBoard.position(piece.getSquare());
+		board.removePiece(pos);
+
+		ChessPiece newPiece = newPiece(type, piece.getColor());
 		board.placePeice(newPiece, pos);
-		piecesOnTheBoard.add(newPiece);
 
 		return newPiece;
 	}
 
-	private ChessPiece newPiece(String type, Color color) {
+	private PieceType pieceType(String type) {
 		if (type.equalsIgnoreCase("B"))
-			return new Bishop(board, color);
+			return PieceType.BISHOP;
 		if (type.equalsIgnoreCase("N"))
-			return new Knight(board, color);
+			return PieceType.KNIGHT;
 		if (type.equalsIgnoreCase("Q"))
-			return new Queen(board, color);
-		return new Rook(board, color);
+			return PieceType.QUEEN;
+		return PieceType.ROOK;
+	}
 
+	private ChessPiece newPiece(PieceType type, Color color) {
+		switch (type) {
+		case PAWN:
+			return new Pawn(board, color, this);
+		case KNIGHT:
+			return new Knight(board, color);
+		case BISHOP:
+			return new Bishop(board, color);
+		case ROOK:
+			return new Rook(board, color);
+		case QUEEN:
+			return new Queen(board, color);
+		default:
+			return new King(board, color, this);
+		}
 	}
 
 	private Piece makeMove(Position initial, Position target) {
@@ -159,14 +500,13 @@ public class ChessMatch {
 		board.placePeice(p, target);
 
 		if (capturedPiece != null) {
-			piecesOnTheBoard.remove(capturedPiece);
 			CapturedPieces.add(capturedPiece);
 		}
 
 		// castling small
 		if (p instanceof King && target.getColum() == initial.getColum() + 2) {
-			Position initialT = new Position(initial.getRow(), initial.getColum() + 3);
-			Position targetT = new Position(initial.getRow(), initial.getColum() + 1);
+			Position initialT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() + 3));
+			Position targetT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() + 1));
 			ChessPiece rook = (ChessPiece) board.removePiece(initialT);
 
 			board.placePeice(rook, targetT);
@@ -175,8 +515,8 @@ public class ChessMatch {
 
 		// castling Big
 		if (p instanceof King && target.getColum() == initial.getColum() - 2) {
-			Position initialT = new Position(initial.getRow(), initial.getColum() - 4);
-			Position targetT = new Position(initial.getRow(), initial.getColum() - 1);
+			Position initialT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() - 4));
+			Position targetT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() - 1));
 			ChessPiece rook = (ChessPiece) board.removePiece(initialT);
 
 			board.placePeice(rook, targetT);
@@ -188,13 +528,12 @@ public class ChessMatch {
 			if (initial.getColum() != target.getColum() && capturedPiece == null) {
 				Position pawnPosition;
 				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(target.getRow() + 1, target.getColum());
+					pawnPosition = BitBoard.position(BitBoard.square(target.getRow() + 1, target.getColum()));
 				} else {
-					pawnPosition = new Position(target.getRow() - 1, target.getColum());
+					pawnPosition = BitBoard.position(BitBoard.square(target.getRow() - 1, target.getColum()));
 				}
 				capturedPiece = board.removePiece(pawnPosition);
 				CapturedPieces.add(capturedPiece);
-				piecesOnTheBoard.remove(capturedPiece);
 
 			}
 		}
@@ -210,14 +549,13 @@ public class ChessMatch {
 
 		if (capturedPiece != null) {
 			board.placePeice(capturedPiece, target);
-			CapturedPieces.remove(capturedPiece);
-			piecesOnTheBoard.add(capturedPiece);
+			CapturedPieces.remove(CapturedPieces.size() - 1);
 		}
 
 		// castling small
 		if (p instanceof King && target.getColum() == initial.getColum() + 2) {
-			Position initialT = new Position(initial.getRow(), initial.getColum() + 3);
-			Position targetT = new Position(initial.getRow(), initial.getColum() + 1);
+			Position initialT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() + 3));
+			Position targetT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() + 1));
 			ChessPiece rook = (ChessPiece) board.removePiece(targetT);
 
 			board.placePeice(rook, initialT);
@@ -226,8 +564,8 @@ public class ChessMatch {
 
 		// castling Big
 		if (p instanceof King && target.getColum() == initial.getColum() - 2) {
-			Position initialT = new Position(initial.getRow(), initial.getColum() - 4);
-			Position targetT = new Position(initial.getRow(), initial.getColum() - 1);
+			Position initialT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() - 4));
+			Position targetT = BitBoard.position(BitBoard.square(initial.getRow(), initial.getColum() - 1));
 			ChessPiece rook = (ChessPiece) board.removePiece(targetT);
 
 			board.placePeice(rook, initialT);
@@ -236,14 +574,13 @@ public class ChessMatch {
 
 		// En Passant
 		if (p instanceof Pawn) {
-			ChessPiece pawn = (ChessPiece) board.removePiece(target);
-
 			if (initial.getColum() != target.getColum() && capturedPiece == enPassantVulnerable) {
+				ChessPiece pawn = (ChessPiece) board.removePiece(target);
 				Position pawnPosition;
 				if (p.getColor() == Color.WHITE) {
-					pawnPosition = new Position(3, target.getColum());
+					pawnPosition = BitBoard.position(BitBoard.square(3, target.getColum()));
 				} else {
-					pawnPosition = new Position(4, target.getColum());
+					pawnPosition = BitBoard.position(BitBoard.square(4, target.getColum()));
 				}
 
 				board.placePeice(pawn, pawnPosition);
@@ -252,83 +589,290 @@ public class ChessMatch {
 		}
 	}
 
-	private void validateTargetPosition(Position initial, Position target) {
-		if (!board.piece(initial).possibleMove(target)) {
+	private void validateTargetPosition(int initial, int target) {
+		if (findLegalMove(initial, target) < 0) {
+			// the piece does move that way, but it would leave its king in check
+			if (((ChessPiece) board.piece(initial)).canMoveTo(target)) {
+				throw new ChessExceptions("You can't put tourself in check!");
+			}
 			throw new ChessExceptions("The chosen piece can't move to target position!");
 		}
 
 	}
 
+	private void updateMatchState() {
+		check = testCheck(currentPlayer);
+	}
+
+	private void pushKey() {
+		if (historySize == keyHistory.length) {
+			keyHistory = Arrays.copyOf(keyHistory, historySize * 2);
+		}
+		keyHistory[historySize++] = getHashKey();
+	}
+
+	private int castlingRights() {
+		int rights = 0;
+		if (canCastle(60, 63)) {
+			rights |= Zobrist.WHITE_KINGSIDE;
+		}
+		if (canCastle(60, 56)) {
+			rights |= Zobrist.WHITE_QUEENSIDE;
+		}
+		if (canCastle(4, 7)) {
+			rights |= Zobrist.BLACK_KINGSIDE;
+		}
+		if (canCastle(4, 0)) {
+			rights |= Zobrist.BLACK_QUEENSIDE;
+		}
+		return rights;
+	}
+
+	private boolean canCastle(int kingSquare, int rookSquare) {
+		ChessPiece king = (ChessPiece) board.piece(kingSquare / BitBoard.SIZE, kingSquare % BitBoard.SIZE);
+		ChessPiece rook = (ChessPiece) board.piece(rookSquare / BitBoard.SIZE, rookSquare % BitBoard.SIZE);
+		return king instanceof King && king.getMoveCount() == 0 && rook instanceof Rook && rook.getMoveCount() == 0
+				&& rook.getColor() == king.getColor();
+	}
+
+	// column of the en passant target, only when an enemy pawn could actually take it
+	private int enPassantColumn() {
+		if (enPassantVulnerable == null || enPassantVulnerable.getSquare() < 0) {
+			return -1;
+		}
+		Color color = enPassantVulnerable.getColor();
+		int square = enPassantVulnerable.getSquare();
+		int behind = square + ((color == Color.WHITE) ? BitBoard.SIZE : -BitBoard.SIZE);
+		if ((Attacks.pawnAttacks(color, behind) & board.getPieces(opponent(color), PieceType.PAWN)) == 0) {
+			return -1;
+		}
+		return square % BitBoard.SIZE;
+	}
+
 	private void nextTurn() {
 		turn++;
 		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 
-	private void validateSourcePosition(Position position) {
-		if (!board.threIsAPiece(position)) {
+	private void previousTurn() {
+		turn--;
+		currentPlayer = (currentPlayer == Color.WHITE) ? Color.BLACK : Color.WHITE;
+	}
+
+	private void validateSourcePosition(int square) {
+		ChessPiece piece = (ChessPiece) board.piece(square);
+		if (piece == null) {
 			throw new ChessExceptions("There is no piece in source position!");
 		}
-		if (currentPlayer != ((ChessPiece) board.piece(position)).getColor()) {
+		if (currentPlayer != piece.getColor()) {
 			throw new ChessExceptions("The chosen piece is not yours!");
 		}
-		if (!board.piece(position).isThereAnyPossibleMove()) {
+		if (!hasLegalMove(piece)) {
 			throw new ChessExceptions("There is no possible moves for this piece!");
 		}
 	}
 
+	// stops at the first legal move of the side to move
+	private boolean hasAnyLegalMove() {
+		for (PieceType type : PieceType.values()) {
+			for (int i = 0; i < board.getPieceCount(currentPlayer, type); i++) {
+				if (hasLegalMove(board.getPiece(currentPlayer, type, i))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// stops at the first move that keeps the king safe
+	private boolean hasLegalMove(ChessPiece piece) {
+		PrimitiveIterator.OfInt moves = piece.moveIterator();
+		while (moves.hasNext()) {
+			if (generator.isLegal(piece.getColor(), moves.nextInt())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private Color opponent(Color color) {
 		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
 	}
 
-	private ChessPiece king(Color color) {
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
-		for (Piece p : list) {
-			if (p instanceof King) {
-				return (ChessPiece) p;
-			}
+	private int kingSquare(Color color) {
+		int square = board.getKingSquare(color);
+		if (square < 0) {
+			throw new IllegalStateException("There is no " + color + " king on the board");
 		}
-		throw new IllegalStateException("There is no " + color + " king on the board");
+		return square;
 	}
 
 	private boolean testCheck(Color color) {
-		Position kingPosition = king(color).getChessPosition().toPosition();
-		List<Piece> opponentPieces = piecesOnTheBoard.stream()
-				.filter(x -> ((ChessPiece) x).getColor() == opponent(color)).collect(Collectors.toList());
-		for (Piece p : opponentPieces) {
-			boolean[][] mat = p.possibleMoves();
-			if (mat[kingPosition.getRow()][kingPosition.getColum()]) {
-				return true;
+		return board.isAttacked(kingSquare(color), opponent(color));
+	}
+
+	private void generateLegalMoves(Color color, MoveList moves) {
+		generator.generate(color, moves);
+	}
+
+	// the move between the two squares, a queen for a promotion, or -1 when it is not legal;
+	// only the piece's own ray or offset and the king's safety are looked at
+	private int findLegalMove(int from, int to) {
+		ChessPiece piece = (ChessPiece) board.piece(from);
+		if (to < 0 || to >= 64 || piece == null || piece.getColor() != currentPlayer || !piece.canMoveTo(to)) {
+			return -1;
+		}
+		piece.movesTo(to, targetMoves);
+		return generator.isLegal(currentPlayer, targetMoves[0]) ? targetMoves[0] : -1;
+	}
+
+	// the console turn asks about the same position several times, it is generated once
+	private int[] cachedLegalMoves() {
+		long key = getHashKey();
+		long occupied = board.getOccupied();
+		long mover = board.getPieces(currentPlayer);
+		int[] moves = moveCache.get(key, occupied, mover);
+		if (moves == null) {
+			generateLegalMoves(currentPlayer, moveBuffer);
+			moves = new int[moveBuffer.size()];
+			for (int i = 0; i < moves.length; i++) {
+				moves[i] = moveBuffer.get(i);
 			}
+			moveCache.put(key, occupied, mover, moves);
 		}
-		return false;
+		return moves;
 	}
 
-	private boolean testCheckMate(Color color) {
-		if (!testCheck(color)) {
-			return false;
-		}
-		List<Piece> list = piecesOnTheBoard.stream().filter(x -> ((ChessPiece) x).getColor() == color)
-				.collect(Collectors.toList());
-		for (Piece p : list) {
-			boolean[][] mat = p.possibleMoves();
-			for (int i = 0; i < board.getRows(); i++) {
-				for (int j = 0; j < board.getColumns(); j++) {
-					if (mat[i][j]) {
-						Position initial = ((ChessPiece) p).getChessPosition().toPosition();
-						Position target = new Position(i, j);
-						Piece capturedPiece = makeMove(initial, target);
-						boolean testCheck = testCheck(color);
-						undoMove(initial, target, capturedPiece);
-						if (!testCheck) {
-							return false;
-						}
-					}
+	private void setupFromFen(String fen) {
+		String[] fields = fenFields(fen);
+		if (fields[3] == null) {
+			throw new ChessExceptions("Invalid FEN: " + fen);
+		}
+
+		// one pass over the board field, ranks from 8 down to 1
+		String placement = fields[0];
+		int row = 0;
+		int column = 0;
+		for (int i = 0; i < placement.length(); i++) {
+			char c = placement.charAt(i);
+			if (c == '/') {
+				if (column != BitBoard.SIZE || ++row >= BitBoard.SIZE) {
+					throw new ChessExceptions("Invalid FEN board: " + placement);
+				}
+				column = 0;
+			} else if (c >= '1' && c <= '8') {
+				column += c - '0';
+			} else {
+				int index = "PNBRQKpnbrqk".indexOf(c);
+				if (index < 0 || column >= BitBoard.SIZE) {
+					throw new ChessExceptions("Invalid FEN board: " + placement);
+				}
+				Color color = (index < 6) ? Color.WHITE : Color.BLACK;
+				PieceType type = PieceType.values()[index % 6];
+				int limit = (type == PieceType.KING) ? 1 : BitBoard.MAX_PIECES;
+				if (board.getPieceCount(color, type) >= limit) {
+					throw new ChessExceptions("Invalid FEN, too many pieces of one kind: " + placement);
 				}
+				placeSetupPiece(type, color, BitBoard.square(row, column));
+				column++;
 			}
 		}
+		if (row != BitBoard.SIZE - 1 || column != BitBoard.SIZE) {
+			throw new ChessExceptions("Invalid FEN board: " + placement);
+		}
+
+		if (board.getKingSquare(Color.WHITE) < 0 || board.getKingSquare(Color.BLACK) < 0) {
+			throw new ChessExceptions("Invalid FEN, both kings are needed: " + fen);
+		}
 
-		return true;
+		if (fields[1].equals("w")) {
+			currentPlayer = Color.WHITE;
+		} else if (fields[1].equals("b")) {
+			currentPlayer = Color.BLACK;
+		} else {
+			throw new ChessExceptions("Invalid FEN side to move: " + fields[1]);
+		}
+
+		// castling rights live in the move counts of kings and rooks
+		String castling = fields[2];
+		markMoved(Color.WHITE, castling.indexOf('K') >= 0, castling.indexOf('Q') >= 0);
+		markMoved(Color.BLACK, castling.indexOf('k') >= 0, castling.indexOf('q') >= 0);
+
+		if (!fields[3].equals("-")) {
+			// the square behind a pawn of the side that just moved: rank 6 with white to move, 3 with black
+			column = fields[3].charAt(0) - 'a';
+			row = (currentPlayer == Color.WHITE) ? 3 : 4;
+			char rank = (currentPlayer == Color.WHITE) ? '6' : '3';
+			if (fields[3].length() != 2 || column < 0 || column >= BitBoard.SIZE || fields[3].charAt(1) != rank) {
+				throw new ChessExceptions("Invalid FEN en passant square: " + fields[3]);
+			}
+			ChessPiece pawn = (ChessPiece) board.piece(row, column);
+			if (!(pawn instanceof Pawn) || pawn.getColor() == currentPlayer) {
+				throw new ChessExceptions("Invalid FEN en passant square: " + fields[3]);
+			}
+			enPassantVulnerable = pawn;
+		}
+
+		// the counters are optional, turn counts half moves from 1
+		try {
+			halfMoveClock = (fields[4] != null) ? Integer.parseInt(fields[4]) : 0;
+			int fullMove = (fields[5] != null) ? Integer.parseInt(fields[5]) : 1;
+			if (halfMoveClock < 0) {
+				throw new ChessExceptions("Invalid FEN halfmove clock: " + fields[4]);
+			}
+			turn = (Math.max(fullMove, 1) - 1) * 2 + ((currentPlayer == Color.WHITE) ? 1 : 2);
+		} catch (NumberFormatException e) {
+			throw new ChessExceptions("Invalid FEN move counters: " + fen);
+		}
+	}
+
+	// the six space separated fields, null for the missing ones
+	private static String[] fenFields(String fen) {
+		String[] fields = new String[6];
+		int count = 0;
+		int start = -1;
+		for (int i = 0; i <= fen.length(); i++) {
+			boolean space = i == fen.length() || fen.charAt(i) == ' ';
+			if (!space && start < 0) {
+				start = i;
+			} else if (space && start >= 0) {
+				if (count == fields.length) {
+					throw new ChessExceptions("Invalid FEN: " + fen);
+				}
+				fields[count++] = fen.substring(start, i);
+				start = -1;
+			}
+		}
+		return fields;
+	}
+
+	private void placeSetupPiece(PieceType type, Color color, int square) {
+		ChessPiece piece = newPiece(type, color);
+		board.placePeice(piece, BitBoard.position(square));
+
+		// pawns off their start row have already moved and can't jump two squares
+		int startRow = (color == Color.WHITE) ? 6 : 1;
+		if (type == PieceType.PAWN && square / BitBoard.SIZE != startRow) {
+			piece.increaseMoveCount();
+		}
+	}
+
+	private void markMoved(Color color, boolean kingSide, boolean queenSide) {
+		int homeRow = (color == Color.WHITE) ? 7 : 0;
+		for (int i = 0; i < board.getPieceCount(color, PieceType.KING); i++) {
+			ChessPiece king = board.getPiece(color, PieceType.KING, i);
+			if (!(kingSide || queenSide) || king.getSquare() != BitBoard.square(homeRow, 4)) {
+				king.increaseMoveCount();
+			}
+		}
+		for (int i = 0; i < board.getPieceCount(color, PieceType.ROOK); i++) {
+			ChessPiece rook = board.getPiece(color, PieceType.ROOK, i);
+			boolean castles = kingSide && rook.getSquare() == BitBoard.square(homeRow, 7)
+					|| queenSide && rook.getSquare() == BitBoard.square(homeRow, 0);
+			if (!castles) {
+				rook.increaseMoveCount();
+			}
+		}
 	}
 
 	private void initialSetup() {
@@ -1,5 +1,8 @@
 package chess;
 
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
 import boardgame.Board;
 import boardgame.Piece;
 import boardgame.Position;
@@ -9,6 +12,9 @@ public abstract class ChessPiece extends Piece {
 	private Color color;
 	private int moveCount;
 
+	// slot in the BitBoard piece list
+	int listIndex;
+
 	public ChessPiece(Board board, Color color) {
 		super(board);
 		this.color = color;
@@ -22,13 +28,114 @@ public abstract class ChessPiece extends Piece {
 		return moveCount;
 	}
 
+	public abstract PieceType getType();
+
+	protected Color opponent() {
+		return (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+	}
+
+	protected BitBoard getBitBoard() {
+		return (BitBoard) getBoard();
+	}
+
+	public int getSquare() {
+		return position == null ? -1 : BitBoard.square(position);
+	}
+
+	// pseudo-legal moves packed with Move, written into a caller-owned list
+	public abstract void generateMoves(MoveList moves);
+
+	// the squares generateMoves goes to, as one mask
+	public abstract long targets();
+
+	// one from/to pair, pseudo-legal like generateMoves, without generating the others
+	public boolean canMoveTo(int to) {
+		return (targets() & (1L << to)) != 0;
+	}
+
+	// pseudo-legal moves packed one target square at a time, a caller that stops early
+	// never pays for the moves it did not ask for
+	public PrimitiveIterator.OfInt moveIterator() {
+		return new PrimitiveIterator.OfInt() {
+
+			private long remaining = targets();
+			private int[] pending = new int[4];
+			private int next;
+			private int count;
+
+			@Override
+			public boolean hasNext() {
+				return next < count || remaining != 0;
+			}
+
+			@Override
+			public int nextInt() {
+				if (next == count) {
+					if (remaining == 0) {
+						throw new NoSuchElementException();
+					}
+					count = movesTo(Long.numberOfTrailingZeros(remaining), pending);
+					remaining &= remaining - 1;
+					next = 0;
+				}
+				return pending[next++];
+			}
+		};
+	}
+
+	// the moves to one of the targets written into moves, more than one only for promotions
+	protected int movesTo(int to, int[] moves) {
+		moves[0] = Move.create(getSquare(), to, (getBitBoard().getOccupied() & (1L << to)) != 0 ? Move.CAPTURE : Move.NONE);
+		return 1;
+	}
+
+	@Override
+	public boolean possibleMove(Position position) {
+		return canMoveTo(BitBoard.square(position));
+	}
+
+	@Override
+	public boolean isThereAnyPossibleMove() {
+		return targets() != 0;
+	}
+
+	@Override
+	public boolean[][] possibleMoves() {
+		MoveList moves = new MoveList();
+		generateMoves(moves);
+		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+		for (int i = 0; i < moves.size(); i++) {
+			int to = Move.getTo(moves.get(i));
+			mat[to / BitBoard.SIZE][to % BitBoard.SIZE] = true;
+		}
+		return mat;
+	}
+
+	protected void addMoves(MoveList moves, long targets) {
+		int from = getSquare();
+		long occupied = getBitBoard().getOccupied();
+		while (targets != 0) {
+			int to = Long.numberOfTrailingZeros(targets);
+			moves.add(Move.create(from, to, (occupied & (1L << to)) != 0 ? Move.CAPTURE : Move.NONE));
+			targets &= targets - 1;
+		}
+	}
+
+	// a slider reaches the square when it lies on one of its rays and nothing stands between
+	protected boolean slidesTo(long rays, int to) {
+		BitBoard board = getBitBoard();
+		long target = 1L << to;
+		return (rays & target) != 0 && (board.getPieces(color) & target) == 0
+				&& (Attacks.between(getSquare(), to) & board.getOccupied()) == 0;
+	}
+
 	protected boolean isThereOpponentPiece(Position position) {
 		ChessPiece p = (ChessPiece) getBoard().piece(position);
 		return p != null && p.getColor() != color;
 	}
 
 	public ChessPosition getChessPosition() {
-		return ChessPosition.fromPosition(position);
+		return position == null ? null : ChessPosition.fromPosition(position);
 	}
 
 	public void increaseMoveCount() {
@@ -38,4 +145,8 @@ public abstract class ChessPiece extends Piece {
 	public void decreaseMoveCount() {
 		moveCount--;
 	}
+
+	void setMoveCount(int moveCount) {
+		this.moveCount = moveCount;
+	}
 }
@@ -2,12 +2,22 @@ package chess;
 
 import boardgame.Position;
 
+// Immutable; valueOf and fromSquare hand out one shared instance per square
 public class ChessPosition {
-	private char column;
-	private int row;
-	
+
+	private static final ChessPosition[] SQUARES = new ChessPosition[BitBoard.SIZE * BitBoard.SIZE];
+
+	static {
+		for (int square = 0; square < SQUARES.length; square++) {
+			SQUARES[square] = new ChessPosition((char) ('a' + square % 8), 8 - square / 8);
+		}
+	}
+
+	private final char column;
+	private final int row;
+
 	public ChessPosition(char column, int row) {
-		if (column < 'a' && column > 'h' || row < 1 && row > 8) {
+		if (column < 'a' || column > 'h' || row < 1 || row > 8) {
 			throw new ChessExceptions("Error on chess position, select a valid one (a1 to h8)");
 		}
 		this.column = column;
@@ -18,22 +28,36 @@ public class ChessPosition {
 		return column;
 	}
 
-	
-
 	public int getRow() {
 		return row;
 	}
 
-	 protected Position toPosition() {
-		 return new Position(8 - row, column - 'a');
-	 }
-	
-	 protected static ChessPosition fromPosition(Position position) {
-		 return new ChessPosition((char)('a' + position.getColum()), 8 - position.getRow());
-	 }
-	 
-	 @Override
-	 public String toString() {
-		 return " " + column + row;
-	 }
+	// the BitBoard square, a8 is 0 and h1 is 63
+	public int getSquare() {
+		return (8 - row) * 8 + (column - 'a');
+	}
+
+	protected Position toPosition() {
+		return BitBoard.position(getSquare());
+	}
+
+	protected static ChessPosition fromPosition(Position position) {
+		return SQUARES[BitBoard.square(position)];
+	}
+
+	public static ChessPosition fromSquare(int square) {
+		return SQUARES[square];
+	}
+
+	public static ChessPosition valueOf(char column, int row) {
+		if (column < 'a' || column > 'h' || row < 1 || row > 8) {
+			throw new ChessExceptions("Error on chess position, select a valid one (a1 to h8)");
+		}
+		return SQUARES[(8 - row) * 8 + (column - 'a')];
+	}
+
+	@Override
+	public String toString() {
+		return " " + column + row;
+	}
 }
@@ -0,0 +1,131 @@
+package chess;
+
+// Material and piece-square values, tapered from middlegame to endgame by the pieces
+// left on the board. BitBoard adds and removes them as pieces are placed and taken
+// away, so evaluating a position never looks at its pieces.
+public class Evaluation {
+
+	public static final int[] MIDDLEGAME_MATERIAL = { 100, 320, 330, 500, 900, 0 };
+	public static final int[] ENDGAME_MATERIAL = { 120, 300, 320, 520, 920, 0 };
+
+	// knights and bishops count 1, rooks 2 and queens 4, the full set is 24
+	public static final int[] PHASE = { 0, 1, 1, 2, 4, 0 };
+	public static final int TOTAL_PHASE = 24;
+
+	// tables for white, square 0 is a8, black reads them mirrored
+	private static final int[] PAWN = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			10, 10, 20, 30, 30, 20, 10, 10,
+			5, 5, 10, 25, 25, 10, 5, 5,
+			0, 0, 0, 20, 20, 0, 0, 0,
+			5, -5, -10, 0, 0, -10, -5, 5,
+			5, 10, 10, -20, -20, 10, 10, 5,
+			0, 0, 0, 0, 0, 0, 0, 0 };
+
+	private static final int[] PAWN_ENDGAME = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			80, 80, 80, 80, 80, 80, 80, 80,
+			50, 50, 50, 50, 50, 50, 50, 50,
+			30, 30, 30, 30, 30, 30, 30, 30,
+			20, 20, 20, 20, 20, 20, 20, 20,
+			10, 10, 10, 10, 10, 10, 10, 10,
+			0, 0, 0, 0, 0, 0, 0, 0,
+			0, 0, 0, 0, 0, 0, 0, 0 };
+
+	private static final int[] KNIGHT = {
+			-50, -40, -30, -30, -30, -30, -40, -50,
+			-40, -20, 0, 0, 0, 0, -20, -40,
+			-30, 0, 10, 15, 15, 10, 0, -30,
+			-30, 5, 15, 20, 20, 15, 5, -30,
+			-30, 0, 15, 20, 20, 15, 0, -30,
+			-30, 5, 10, 15, 15, 10, 5, -30,
+			-40, -20, 0, 5, 5, 0, -20, -40,
+			-50, -40, -30, -30, -30, -30, -40, -50 };
+
+	private static final int[] BISHOP = {
+			-20, -10, -10, -10, -10, -10, -10, -20,
+			-10, 0, 0, 0, 0, 0, 0, -10,
+			-10, 0, 5, 10, 10, 5, 0, -10,
+			-10, 5, 5, 10, 10, 5, 5, -10,
+			-10, 0, 10, 10, 10, 10, 0, -10,
+			-10, 10, 10, 10, 10, 10, 10, -10,
+			-10, 5, 0, 0, 0, 0, 5, -10,
+			-20, -10, -10, -10, -10, -10, -10, -20 };
+
+	private static final int[] ROOK = {
+			0, 0, 0, 0, 0, 0, 0, 0,
+			5, 10, 10, 10, 10, 10, 10, 5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			-5, 0, 0, 0, 0, 0, 0, -5,
+			0, 0, 0, 5, 5, 0, 0, 0 };
+
+	private static final int[] QUEEN = {
+			-20, -10, -10, -5, -5, -10, -10, -20,
+			-10, 0, 0, 0, 0, 0, 0, -10,
+			-10, 0, 5, 5, 5, 5, 0, -10,
+			-5, 0, 5, 5, 5, 5, 0, -5,
+			0, 0, 5, 5, 5, 5, 0, -5,
+			-10, 5, 5, 5, 5, 5, 0, -10,
+			-10, 0, 5, 0, 0, 0, 0, -10,
+			-20, -10, -10, -5, -5, -10, -10, -20 };
+
+	private static final int[] KING = {
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-30, -40, -40, -50, -50, -40, -40, -30,
+			-20, -30, -30, -40, -40, -30, -30, -20,
+			-10, -20, -20, -20, -20, -20, -20, -10,
+			20, 20, 0, 0, 0, 0, 20, 20,
+			20, 30, 10, 0, 0, 10, 30, 20 };
+
+	private static final int[] KING_ENDGAME = {
+			-50, -40, -30, -20, -20, -30, -40, -50,
+			-30, -20, -10, 0, 0, -10, -20, -30,
+			-30, -10, 20, 30, 30, 20, -10, -30,
+			-30, -10, 30, 40, 40, 30, -10, -30,
+			-30, -10, 30, 40, 40, 30, -10, -30,
+			-30, -10, 20, 30, 30, 20, -10, -30,
+			-30, -30, 0, 0, 0, 0, -30, -30,
+			-50, -30, -30, -30, -30, -30, -30, -50 };
+
+	private static final int[][] MIDDLEGAME_TABLES = { PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING };
+	private static final int[][] ENDGAME_TABLES = { PAWN_ENDGAME, KNIGHT, BISHOP, ROOK, QUEEN, KING_ENDGAME };
+
+	// material plus table by color, type and square, positive for white
+	private static final int[][][] MIDDLEGAME = new int[2][6][64];
+	private static final int[][][] ENDGAME = new int[2][6][64];
+
+	static {
+		for (PieceType type : PieceType.values()) {
+			int t = type.ordinal();
+			for (int square = 0; square < 64; square++) {
+				MIDDLEGAME[Color.WHITE.ordinal()][t][square] = MIDDLEGAME_MATERIAL[t] + MIDDLEGAME_TABLES[t][square];
+				ENDGAME[Color.WHITE.ordinal()][t][square] = ENDGAME_MATERIAL[t] + ENDGAME_TABLES[t][square];
+				MIDDLEGAME[Color.BLACK.ordinal()][t][square] = -MIDDLEGAME_MATERIAL[t] - MIDDLEGAME_TABLES[t][square ^ 56];
+				ENDGAME[Color.BLACK.ordinal()][t][square] = -ENDGAME_MATERIAL[t] - ENDGAME_TABLES[t][square ^ 56];
+			}
+		}
+	}
+
+	private Evaluation() {
+	}
+
+	public static int middlegame(Color color, PieceType type, int square) {
+		return MIDDLEGAME[color.ordinal()][type.ordinal()][square];
+	}
+
+	public static int endgame(Color color, PieceType type, int square) {
+		return ENDGAME[color.ordinal()][type.ordinal()][square];
+	}
+
+	// centipawns for white, blended by how much of the starting material is left
+	public static int evaluate(BitBoard board) {
+		int phase = Math.min(board.getPhase(), TOTAL_PHASE);
+		return (board.getMiddlegameScore() * phase + board.getEndgameScore() * (TOTAL_PHASE - phase)) / TOTAL_PHASE;
+	}
+}
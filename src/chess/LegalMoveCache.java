@@ -0,0 +1,75 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Legal moves of the positions a match went through lately, by Zobrist key. The key
+// covers all the moves depend on, pieces, side to move, castling and en passant, so
+// any change to the board looks up another entry. Two positions may still share a key,
+// so every entry also keeps the occupancy and the pieces of the side to move and a
+// lookup that does not match them is a miss. The least recently used position is
+// dropped once the cache is full.
+public class LegalMoveCache {
+
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final Map<Long, Entry> entries;
+	private long hits;
+	private long misses;
+
+	public LegalMoveCache(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		entries = new LinkedHashMap<Long, Entry>(capacity * 4 / 3 + 1, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	// the moves of the position, null when they have to be generated
+	public int[] get(long key, long occupied, long mover) {
+		Entry entry = entries.get(key);
+		if (entry == null || entry.occupied != occupied || entry.mover != mover) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.moves;
+	}
+
+	public void put(long key, long occupied, long mover, int[] moves) {
+		entries.put(key, new Entry(occupied, mover, moves));
+	}
+
+	public void clear() {
+		entries.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	private static class Entry {
+
+		private final long occupied;
+		private final long mover;
+		private final int[] moves;
+
+		Entry(long occupied, long mover, int[] moves) {
+			this.occupied = occupied;
+			this.mover = mover;
+			this.moves = moves;
+		}
+	}
+}
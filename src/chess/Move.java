@@ -0,0 +1,73 @@
+package chess;
+
+// A move packed into an int: bits 0-5 source square, 6-11 target square,
+// 12-15 flags and 16-18 the PieceType ordinal of a promotion (0 when none).
+public final class Move {
+
+	public static final int NONE = 0;
+
+	public static final int CAPTURE = 1;
+	public static final int DOUBLE_PUSH = 2;
+	public static final int EN_PASSANT = 4;
+	public static final int CASTLING = 8;
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private Move() {
+	}
+
+	public static int create(int from, int to, int flags) {
+		return from | (to << 6) | (flags << 12);
+	}
+
+	public static int create(int from, int to, int flags, PieceType promotion) {
+		return create(from, to, flags) | (promotion.ordinal() << 16);
+	}
+
+	public static int getFrom(int move) {
+		return move & 0x3F;
+	}
+
+	public static int getTo(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	public static int getFlags(int move) {
+		return (move >>> 12) & 0xF;
+	}
+
+	public static boolean isCapture(int move) {
+		return (move & ((CAPTURE | EN_PASSANT) << 12)) != 0;
+	}
+
+	public static boolean isPromotion(int move) {
+		return (move >>> 16) != 0;
+	}
+
+	public static PieceType getPromotion(int move) {
+		return isPromotion(move) ? TYPES[move >>> 16] : null;
+	}
+
+	// long algebraic notation, e.g. e2e4 or e7e8q
+	public static String toString(int move) {
+		String s = squareName(getFrom(move)) + squareName(getTo(move));
+		if (isPromotion(move)) {
+			s += "pnbrqk".charAt(move >>> 16);
+		}
+		return s;
+	}
+
+	// the move of the list written as by toString(), 0 when there is none
+	public static int find(MoveList moves, String text) {
+		for (int i = 0; i < moves.size(); i++) {
+			if (toString(moves.get(i)).equalsIgnoreCase(text)) {
+				return moves.get(i);
+			}
+		}
+		return NONE;
+	}
+
+	public static String squareName(int square) {
+		return "" + (char) ('a' + square % BitBoard.SIZE) + (BitBoard.SIZE - square / BitBoard.SIZE);
+	}
+}
@@ -0,0 +1,162 @@
+package chess;
+
+// Strictly legal moves worked out from check, pin and king danger masks,
+// without making any move on the board.
+public class MoveGenerator {
+
+	private static final PieceType[] TYPES = PieceType.values();
+
+	private BitBoard board;
+
+	public MoveGenerator(BitBoard board) {
+		this.board = board;
+	}
+
+	public void generate(Color color, MoveList moves) {
+		moves.clear();
+		Color them = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long occupied = board.getOccupied();
+		int kingSquare = board.getKingSquare(color);
+
+		long checkers = board.attackersOf(kingSquare, them, occupied);
+		long danger = dangerSquares(them, occupied & ~(1L << kingSquare));
+		long pinned = pinnedPieces(color, them, kingSquare, occupied);
+
+		long checkMask = -1L;
+		if (Long.bitCount(checkers) > 1) {
+			checkMask = 0L;
+		} else if (checkers != 0) {
+			checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+		}
+
+		for (PieceType type : TYPES) {
+			if (checkMask == 0 && type != PieceType.KING) {
+				// double check, only the king can move
+				continue;
+			}
+			for (int n = 0; n < board.getPieceCount(color, type); n++) {
+				ChessPiece piece = board.getPiece(color, type, n);
+				int square = piece.getSquare();
+				int start = moves.size();
+				piece.generateMoves(moves);
+				int legal = start;
+				for (int i = start; i < moves.size(); i++) {
+					int move = moves.get(i);
+					boolean ok;
+					if (type == PieceType.KING) {
+						ok = isLegalKingMove(move, checkers, danger);
+					} else if ((Move.getFlags(move) & Move.EN_PASSANT) != 0) {
+						ok = isLegalEnPassant(move, them, kingSquare, occupied);
+					} else {
+						long to = 1L << Move.getTo(move);
+						ok = (checkMask & to) != 0
+								&& ((pinned & (1L << square)) == 0 || (Attacks.line(kingSquare, square) & to) != 0);
+					}
+					if (ok) {
+						moves.set(legal++, move);
+					}
+				}
+				moves.truncate(legal);
+			}
+		}
+	}
+
+	// one pseudo-legal move of the color, with the same masks narrowed to its two squares
+	public boolean isLegal(Color color, int move) {
+		Color them = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		long occupied = board.getOccupied();
+		int kingSquare = board.getKingSquare(color);
+		int from = Move.getFrom(move);
+		int to = Move.getTo(move);
+
+		if (from == kingSquare) {
+			if ((Move.getFlags(move) & Move.CASTLING) != 0) {
+				long path = Attacks.between(from, to) | (1L << to);
+				if (board.attackersOf(kingSquare, them, occupied) != 0) {
+					return false;
+				}
+				while (path != 0) {
+					if (board.attackersOf(Long.numberOfTrailingZeros(path), them, occupied) != 0) {
+						return false;
+					}
+					path &= path - 1;
+				}
+				return true;
+			}
+			return board.attackersOf(to, them, occupied & ~(1L << from)) == 0;
+		}
+		if ((Move.getFlags(move) & Move.EN_PASSANT) != 0) {
+			return isLegalEnPassant(move, them, kingSquare, occupied);
+		}
+
+		long checkers = board.attackersOf(kingSquare, them, occupied);
+		if (Long.bitCount(checkers) > 1) {
+			return false;
+		}
+		long target = 1L << to;
+		if (checkers != 0 && ((checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers))) & target) == 0) {
+			return false;
+		}
+		long pinned = pinnedPieces(color, them, kingSquare, occupied);
+		return (pinned & (1L << from)) == 0 || (Attacks.line(kingSquare, from) & target) != 0;
+	}
+
+	private boolean isLegalKingMove(int move, long checkers, long danger) {
+		int to = Move.getTo(move);
+		if ((Move.getFlags(move) & Move.CASTLING) != 0) {
+			long path = Attacks.between(Move.getFrom(move), to) | (1L << to);
+			return checkers == 0 && (danger & path) == 0;
+		}
+		return (danger & (1L << to)) == 0;
+	}
+
+	// en passant removes two pieces from one row, so test the resulting occupancy directly
+	private boolean isLegalEnPassant(int move, Color them, int kingSquare, long occupied) {
+		int from = Move.getFrom(move);
+		int to = Move.getTo(move);
+		long captured = 1L << (from / BitBoard.SIZE * BitBoard.SIZE + to % BitBoard.SIZE);
+		long after = (occupied & ~(1L << from) & ~captured) | (1L << to);
+		return (board.attackersOf(kingSquare, them, after) & ~captured) == 0;
+	}
+
+	// every square the opponent attacks, with our king taken off so it can't hide behind itself
+	private long dangerSquares(Color them, long occupied) {
+		long danger = 0L;
+		long pieces = board.getPieces(them);
+		while (pieces != 0) {
+			int square = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			long bit = 1L << square;
+			if ((board.getPieces(PieceType.PAWN) & bit) != 0) {
+				danger |= Attacks.pawnAttacks(them, square);
+			} else if ((board.getPieces(PieceType.KNIGHT) & bit) != 0) {
+				danger |= Attacks.knightAttacks(square);
+			} else if ((board.getPieces(PieceType.BISHOP) & bit) != 0) {
+				danger |= Attacks.bishopAttacks(square, occupied);
+			} else if ((board.getPieces(PieceType.ROOK) & bit) != 0) {
+				danger |= Attacks.rookAttacks(square, occupied);
+			} else if ((board.getPieces(PieceType.QUEEN) & bit) != 0) {
+				danger |= Attacks.queenAttacks(square, occupied);
+			} else {
+				danger |= Attacks.kingAttacks(square);
+			}
+		}
+		return danger;
+	}
+
+	private long pinnedPieces(Color color, Color them, int kingSquare, long occupied) {
+		long queens = board.getPieces(them, PieceType.QUEEN);
+		long snipers = (Attacks.rookAttacks(kingSquare, 0L) & (board.getPieces(them, PieceType.ROOK) | queens))
+				| (Attacks.bishopAttacks(kingSquare, 0L) & (board.getPieces(them, PieceType.BISHOP) | queens));
+		long pinned = 0L;
+		while (snipers != 0) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = Attacks.between(kingSquare, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1) {
+				pinned |= blockers & board.getPieces(color);
+			}
+		}
+		return pinned;
+	}
+}
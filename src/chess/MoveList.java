@@ -0,0 +1,34 @@
+package chess;
+
+public class MoveList {
+
+	// more than the 218 legal moves of the richest known position
+	public static final int CAPACITY = 256;
+
+	private int[] moves = new int[CAPACITY];
+	private int size;
+
+	public void add(int move) {
+		moves[size++] = move;
+	}
+
+	public int get(int index) {
+		return moves[index];
+	}
+
+	public void set(int index, int move) {
+		moves[index] = move;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	public void truncate(int size) {
+		this.size = size;
+	}
+}
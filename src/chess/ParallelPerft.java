@@ -0,0 +1,89 @@
+package chess;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Perft on a fork/join pool. The tree is split at the upper plies, every task works
+// on its own copy of the match, and below SERIAL_DEPTH the plain Perft takes over.
+public class ParallelPerft {
+
+	// subtrees of this depth or less are counted by a single thread
+	private static final int SERIAL_DEPTH = 3;
+
+	private ChessMatch match;
+	private int threads;
+	private PerftCache cache;
+
+	public ParallelPerft(ChessMatch match, int threads) {
+		this(match, threads, null);
+	}
+
+	public ParallelPerft(ChessMatch match, int threads, PerftCache cache) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one perft thread is needed");
+		}
+		this.match = match;
+		this.threads = threads;
+		this.cache = cache;
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	public long perft(int depth) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return pool.invoke(new PerftTask(new ChessMatch(match), depth, cache));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private transient ChessMatch position;
+		private int depth;
+		private transient PerftCache cache;
+
+		PerftTask(ChessMatch position, int depth, PerftCache cache) {
+			this.position = position;
+			this.depth = depth;
+			this.cache = cache;
+		}
+
+		@Override
+		protected Long compute() {
+			if (depth <= SERIAL_DEPTH) {
+				return new Perft(position, cache).perft(depth);
+			}
+			long key = 0;
+			if (cache != null) {
+				key = position.getHashKey();
+				long cached = cache.probe(key, depth);
+				if (cached >= 0) {
+					return cached;
+				}
+			}
+			MoveList moves = new MoveList();
+			position.legalMoves(moves);
+			PerftTask[] tasks = new PerftTask[moves.size()];
+			for (int i = 0; i < moves.size(); i++) {
+				ChessMatch child = new ChessMatch(position);
+				child.makeMove(moves.get(i));
+				tasks[i] = new PerftTask(child, depth - 1, cache);
+			}
+			invokeAll(tasks);
+			long nodes = 0;
+			for (PerftTask task : tasks) {
+				nodes += task.join();
+			}
+			if (cache != null) {
+				cache.store(key, depth, nodes);
+			}
+			return nodes;
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package chess;
+
+import java.io.PrintStream;
+
+// Counts the leaf nodes of the legal move tree, the ground truth for move generation
+public class Perft {
+
+	public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	// start position, Kiwipete and positions 3 to 5 of the usual perft suite
+	public static final String[] REFERENCE_POSITIONS = { START_POSITION,
+			"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+			"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+			"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+			"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8" };
+
+	// published node counts, indexed by depth - 1
+	public static final long[][] REFERENCE_COUNTS = { { 20, 400, 8902, 197281, 4865609 },
+			{ 48, 2039, 97862, 4085603 },
+			{ 14, 191, 2812, 43238, 674624 },
+			{ 6, 264, 9467, 422333 },
+			{ 44, 1486, 62379, 2103487 } };
+
+	private ChessMatch match;
+	private PerftCache cache;
+	private MoveList[] lists = new MoveList[0];
+
+	public Perft(ChessMatch match) {
+		this(match, null);
+	}
+
+	// the cache may be shared with other Perft instances, also on other threads
+	public Perft(ChessMatch match, PerftCache cache) {
+		this.match = match;
+		this.cache = cache;
+	}
+
+	public long perft(int depth) {
+		if (lists.length < depth) {
+			lists = new MoveList[depth];
+			for (int i = 0; i < depth; i++) {
+				lists[i] = new MoveList();
+			}
+		}
+		return count(depth);
+	}
+
+	// prints the count below every root move and returns the total
+	public long divide(int depth, PrintStream out) {
+		MoveList moves = new MoveList();
+		match.legalMoves(moves);
+		long total = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			match.makeMove(move);
+			long nodes = (depth > 1) ? perft(depth - 1) : 1;
+			match.undoMove();
+			out.println(Move.toString(move) + ": " + nodes);
+			total += nodes;
+		}
+		return total;
+	}
+
+	private long count(int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		long key = 0;
+		if (cache != null && depth > 1) {
+			key = match.getHashKey();
+			long cached = cache.probe(key, depth);
+			if (cached >= 0) {
+				return cached;
+			}
+		}
+		MoveList moves = lists[depth - 1];
+		match.legalMoves(moves);
+		if (depth == 1) {
+			// bulk counting, the moves are already legal
+			return moves.size();
+		}
+		long nodes = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			match.makeMove(moves.get(i));
+			nodes += count(depth - 1);
+			match.undoMove();
+		}
+		if (cache != null) {
+			cache.store(key, depth, nodes);
+		}
+		return nodes;
+	}
+}
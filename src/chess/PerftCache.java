@@ -0,0 +1,42 @@
+package chess;
+
+// Subtree counts by position hash and depth, shared by perft threads without locks.
+// A slot keeps its key xor'ed with the count, so a slot torn by two writers is a
+// miss rather than a wrong count.
+public class PerftCache {
+
+	private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+
+	private long[] keys;
+	private long[] counts;
+	private int mask;
+
+	public PerftCache(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("Cache size must be at least 1 MB");
+		}
+		long slots = Long.highestOneBit((long) megabytes * 1024 * 1024 / 16);
+		slots = Math.min(slots, 1L << 30);
+		keys = new long[(int) slots];
+		counts = new long[(int) slots];
+		mask = (int) slots - 1;
+	}
+
+	// the count below the position at this depth, -1 when it is not known
+	public long probe(long key, int depth) {
+		key ^= depth * DEPTH_MIX;
+		int slot = (int) (key ^ (key >>> 32)) & mask;
+		long count = counts[slot];
+		if ((keys[slot] ^ count) == key && count != 0) {
+			return count;
+		}
+		return -1;
+	}
+
+	public void store(long key, int depth, long count) {
+		key ^= depth * DEPTH_MIX;
+		int slot = (int) (key ^ (key >>> 32)) & mask;
+		keys[slot] = key ^ count;
+		counts[slot] = count;
+	}
+}
@@ -0,0 +1,118 @@
+package chess;
+
+// An immutable copy of a position: eight bitboards plus the state FEN keeps beside
+// the board. It holds no pieces or board references, so it can be shared between
+// threads freely and turned back into a ChessMatch with toMatch().
+public final class PositionSnapshot {
+
+	private final long white;
+	private final long black;
+	private final long pawns;
+	private final long knights;
+	private final long bishops;
+	private final long rooks;
+	private final long queens;
+	private final long kings;
+
+	private final Color sideToMove;
+	private final byte castlingRights;
+	private final byte enPassantSquare;
+	private final int halfMoveClock;
+	private final int turn;
+	private final long hashKey;
+
+	PositionSnapshot(BitBoard board, Color sideToMove, int castlingRights, int enPassantSquare, int halfMoveClock,
+			int turn, long hashKey) {
+		white = board.getPieces(Color.WHITE);
+		black = board.getPieces(Color.BLACK);
+		pawns = board.getPieces(PieceType.PAWN);
+		knights = board.getPieces(PieceType.KNIGHT);
+		bishops = board.getPieces(PieceType.BISHOP);
+		rooks = board.getPieces(PieceType.ROOK);
+		queens = board.getPieces(PieceType.QUEEN);
+		kings = board.getPieces(PieceType.KING);
+		this.sideToMove = sideToMove;
+		this.castlingRights = (byte) castlingRights;
+		this.enPassantSquare = (byte) enPassantSquare;
+		this.halfMoveClock = halfMoveClock;
+		this.turn = turn;
+		this.hashKey = hashKey;
+	}
+
+	public long getPieces(Color color) {
+		return (color == Color.WHITE) ? white : black;
+	}
+
+	public long getPieces(PieceType type) {
+		switch (type) {
+		case PAWN:
+			return pawns;
+		case KNIGHT:
+			return knights;
+		case BISHOP:
+			return bishops;
+		case ROOK:
+			return rooks;
+		case QUEEN:
+			return queens;
+		default:
+			return kings;
+		}
+	}
+
+	public long getPieces(Color color, PieceType type) {
+		return getPieces(color) & getPieces(type);
+	}
+
+	public Color getSideToMove() {
+		return sideToMove;
+	}
+
+	// Zobrist.WHITE_KINGSIDE and friends
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	// square behind a pawn that just moved two squares, -1 when there is none
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	public int getHalfMoveClock() {
+		return halfMoveClock;
+	}
+
+	public int getTurn() {
+		return turn;
+	}
+
+	public long getHashKey() {
+		return hashKey;
+	}
+
+	// a new match at this position, without the moves that led to it
+	public ChessMatch toMatch() {
+		return new ChessMatch(this);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof PositionSnapshot)) {
+			return false;
+		}
+		PositionSnapshot other = (PositionSnapshot) obj;
+		return white == other.white && black == other.black && pawns == other.pawns && knights == other.knights
+				&& bishops == other.bishops && rooks == other.rooks && queens == other.queens && kings == other.kings
+				&& sideToMove == other.sideToMove && castlingRights == other.castlingRights
+				&& enPassantSquare == other.enPassantSquare && halfMoveClock == other.halfMoveClock
+				&& turn == other.turn;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hashKey) * 31 + turn;
+	}
+}
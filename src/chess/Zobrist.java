@@ -0,0 +1,54 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+public final class Zobrist {
+
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+
+	private static final long[][][] PIECES = new long[Color.values().length][PieceType.values().length][64];
+	private static final long[] CASTLING = new long[16];
+	private static final long[] EN_PASSANT = new long[BitBoard.SIZE];
+	private static final long BLACK_TO_MOVE;
+
+	static {
+		// fixed seed so keys are stable between runs
+		SplittableRandom random = new SplittableRandom(0x5A0B157L);
+		for (long[][] color : PIECES) {
+			for (long[] type : color) {
+				for (int square = 0; square < type.length; square++) {
+					type[square] = random.nextLong();
+				}
+			}
+		}
+		for (int i = 0; i < CASTLING.length; i++) {
+			CASTLING[i] = random.nextLong();
+		}
+		for (int i = 0; i < EN_PASSANT.length; i++) {
+			EN_PASSANT[i] = random.nextLong();
+		}
+		BLACK_TO_MOVE = random.nextLong();
+	}
+
+	private Zobrist() {
+	}
+
+	public static long piece(Color color, PieceType type, int square) {
+		return PIECES[color.ordinal()][type.ordinal()][square];
+	}
+
+	public static long castling(int rights) {
+		return CASTLING[rights];
+	}
+
+	public static long enPassant(int column) {
+		return EN_PASSANT[column];
+	}
+
+	public static long blackToMove() {
+		return BLACK_TO_MOVE;
+	}
+}
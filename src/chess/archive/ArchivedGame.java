@@ -0,0 +1,80 @@
+package chess.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.MoveList;
+
+// A game read in place from the mapped archive, nothing is copied until asked for
+public class ArchivedGame {
+
+	private ByteBuffer buffer;
+	private int offset;
+
+	ArchivedGame(ByteBuffer buffer, int offset) {
+		this.buffer = buffer;
+		this.offset = offset;
+	}
+
+	public int getMoveCount() {
+		return Short.toUnsignedInt(buffer.getShort(offset));
+	}
+
+	// GameArchive.WHITE_WINS, BLACK_WINS, DRAW or UNKNOWN
+	public int getResult() {
+		return buffer.get(offset + 2);
+	}
+
+	// null when the game starts from the standard position
+	public String getStartFen() {
+		if ((buffer.get(offset + 3) & GameArchive.HAS_FEN) == 0) {
+			return null;
+		}
+		byte[] fen = new byte[Byte.toUnsignedInt(buffer.get(offset + 4))];
+		buffer.get(offset + 5, fen);
+		return new String(fen, StandardCharsets.US_ASCII);
+	}
+
+	// the stored 16 bit move, see GameArchive for the layout
+	public int getEncodedMove(int index) {
+		return Short.toUnsignedInt(buffer.getShort(movesOffset() + 2 * index));
+	}
+
+	public int getFrom(int index) {
+		return getEncodedMove(index) & 0x3F;
+	}
+
+	public int getTo(int index) {
+		return (getEncodedMove(index) >>> 6) & 0x3F;
+	}
+
+	// a match played through all the moves of the game
+	public ChessMatch replay() {
+		String fen = getStartFen();
+		ChessMatch match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+		MoveList moves = new MoveList();
+		for (int i = 0; i < getMoveCount(); i++) {
+			match.makeMove(decode(match, getEncodedMove(i), moves));
+		}
+		return match;
+	}
+
+	// the legal move of the match the encoded move stands for, flags included
+	public static int decode(ChessMatch match, int encoded, MoveList moves) {
+		match.legalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if (GameArchive.encode(move) == encoded) {
+				return move;
+			}
+		}
+		throw new ChessExceptions("Archived move " + GameArchive.moveToString(encoded) + " is not legal here");
+	}
+
+	private int movesOffset() {
+		return offset + 4 + (((buffer.get(offset + 3) & GameArchive.HAS_FEN) != 0)
+				? 1 + Byte.toUnsignedInt(buffer.get(offset + 4)) : 0);
+	}
+}
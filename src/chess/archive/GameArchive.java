@@ -0,0 +1,162 @@
+package chess.archive;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import chess.Move;
+import chess.PieceType;
+
+// Games stored with two bytes per move, read through memory mapped views of the file.
+//
+// file:  magic "CGA1", then the games back to back
+// game:  u16 move count, u8 result, u8 flags, [u8 length + FEN bytes when HAS_FEN], u16 per move
+// move:  from (6 bits) | to (6 bits) << 6 | promotion (3 bits, 0 none, 1 knight .. 4 queen) << 12
+//
+// Opening the archive hops over the game headers once to build the offset index, after
+// that games are reached directly and their moves are read straight from the mapping.
+public class GameArchive implements Closeable, Iterable<ArchivedGame> {
+
+	static final int MAGIC = 0x43474131;
+
+	public static final int UNKNOWN = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int BLACK_WINS = 2;
+	public static final int DRAW = 3;
+
+	static final int HAS_FEN = 1;
+	static final int MAX_MOVES = 0xFFFF;
+	static final int MAX_FEN = 0xFF;
+
+	// the largest game, so a game starting inside a window always ends inside it too
+	private static final int MAX_GAME = 4 + 1 + MAX_FEN + 2 * MAX_MOVES;
+	private static final long WINDOW = 1L << 30;
+
+	private FileChannel channel;
+	private MappedByteBuffer[] windows;
+	private long[] offsets = new long[1024];
+	private int size;
+
+	public GameArchive(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		long length = channel.size();
+		int count = (int) Math.max(1, (length + WINDOW - 1) / WINDOW);
+		windows = new MappedByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long start = i * WINDOW;
+			windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW + MAX_GAME, length - start));
+		}
+		if (length < 4 || windows[0].getInt(0) != MAGIC) {
+			throw new IOException("Not a game archive: " + path);
+		}
+
+		long offset = 4;
+		while (offset < length) {
+			if (size == offsets.length) {
+				offsets = Arrays.copyOf(offsets, size * 2);
+			}
+			offsets[size++] = offset;
+			ByteBuffer window = window(offset);
+			int at = position(offset);
+			int remaining = window.limit() - at;
+			if (remaining < 4 || (window.get(at + 3) & HAS_FEN) != 0 && remaining < 5) {
+				throw new IOException("Truncated game archive: " + path);
+			}
+			int moves = Short.toUnsignedInt(window.getShort(at));
+			int header = 4 + (((window.get(at + 3) & HAS_FEN) != 0) ? 1 + Byte.toUnsignedInt(window.get(at + 4)) : 0);
+			offset += header + 2L * moves;
+		}
+		if (offset != length) {
+			throw new IOException("Truncated game archive: " + path);
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public ArchivedGame get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("No game " + index + " in an archive of " + size);
+		}
+		return new ArchivedGame(window(offsets[index]), position(offsets[index]));
+	}
+
+	@Override
+	public Iterator<ArchivedGame> iterator() {
+		return new Iterator<ArchivedGame>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public ArchivedGame next() {
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return get(next++);
+			}
+		};
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// the result of a PGN result tag, 1-0, 0-1 or 1/2-1/2, UNKNOWN for anything else
+	public static int result(String pgnResult) {
+		switch (pgnResult) {
+		case "1-0":
+			return WHITE_WINS;
+		case "0-1":
+			return BLACK_WINS;
+		case "1/2-1/2":
+			return DRAW;
+		default:
+			return UNKNOWN;
+		}
+	}
+
+	// the 16 bits a move is stored in, also used by the opening book
+	public static int encode(int move) {
+		PieceType promotion = Move.getPromotion(move);
+		int code = (promotion == null) ? 0 : promotion.ordinal();
+		return Move.getFrom(move) | (Move.getTo(move) << 6) | (code << 12);
+	}
+
+	// long algebraic notation of an encoded move, e.g. e2e4 or e7e8q
+	public static String moveToString(int encoded) {
+		String text = Move.squareName(encoded & 0x3F) + Move.squareName((encoded >>> 6) & 0x3F);
+		int promotion = encoded >>> 12;
+		return (promotion == 0) ? text : text + "pnbrqk".charAt(promotion);
+	}
+
+	static void checkMagic(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not a game archive: " + path);
+			}
+		}
+	}
+
+	private ByteBuffer window(long offset) {
+		return windows[(int) (offset / WINDOW)];
+	}
+
+	private int position(long offset) {
+		return (int) (offset % WINDOW);
+	}
+}
@@ -0,0 +1,80 @@
+package chess.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.MoveList;
+
+// Appends games to an archive file, see GameArchive for the layout
+public class GameArchiveWriter implements Closeable {
+
+	private DataOutputStream out;
+	private long games;
+	private MoveList moveBuffer = new MoveList();
+
+	// a new file is started with the magic number, an existing one is appended to
+	public GameArchiveWriter(Path path) throws IOException {
+		boolean exists = Files.exists(path) && Files.size(path) > 0;
+		if (exists) {
+			GameArchive.checkMagic(path);
+		}
+		out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND), 1 << 16));
+		if (!exists) {
+			out.writeInt(GameArchive.MAGIC);
+		}
+	}
+
+	public long getGamesWritten() {
+		return games;
+	}
+
+	// the result follows from the match when it ended in mate or stalemate, otherwise unknown;
+	// worked out from the position, so a match played with makeMove gets it as well
+	public void append(ChessMatch match) throws IOException {
+		int result = GameArchive.UNKNOWN;
+		match.legalMoves(moveBuffer);
+		if (moveBuffer.size() == 0 && match.getCheck()) {
+			result = (match.getcurrentPlayer() == Color.WHITE) ? GameArchive.BLACK_WINS : GameArchive.WHITE_WINS;
+		} else if (moveBuffer.size() == 0) {
+			result = GameArchive.DRAW;
+		}
+		append(match, result);
+	}
+
+	public void append(ChessMatch match, int result) throws IOException {
+		int[] moves = match.getMoveHistory();
+		if (moves.length > GameArchive.MAX_MOVES) {
+			throw new IllegalArgumentException("Too many moves for the archive: " + moves.length);
+		}
+		byte[] fen = (match.getStartFen() != null) ? match.getStartFen().getBytes(StandardCharsets.US_ASCII) : null;
+		if (fen != null && fen.length > GameArchive.MAX_FEN) {
+			throw new IllegalArgumentException("FEN too long for the archive: " + match.getStartFen());
+		}
+
+		out.writeShort(moves.length);
+		out.writeByte(result);
+		out.writeByte((fen != null) ? GameArchive.HAS_FEN : 0);
+		if (fen != null) {
+			out.writeByte(fen.length);
+			out.write(fen);
+		}
+		for (int move : moves) {
+			out.writeShort(GameArchive.encode(move));
+		}
+		games++;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,135 @@
+package chess.book;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import chess.ChessMatch;
+import chess.MoveList;
+import chess.archive.GameArchive;
+
+// A book file read in place through a memory mapping. Entries are 16 bytes, sorted by
+// key and, for the same key, by falling weight:
+//
+// entry: u64 position hash (ChessMatch.getHashKey), u16 move (GameArchive.encode), u16 weight, u32 games
+//
+// The layout follows Polyglot, the keys do not: they are this program's Zobrist keys.
+public class OpeningBook implements Closeable {
+
+	static final int ENTRY_SIZE = 16;
+
+	private FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int entries;
+
+	public OpeningBook(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		long length = channel.size();
+		if (length % ENTRY_SIZE != 0 || length > Integer.MAX_VALUE) {
+			channel.close();
+			throw new IOException("Not an opening book: " + path);
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+		entries = (int) (length / ENTRY_SIZE);
+	}
+
+	public int size() {
+		return entries;
+	}
+
+	// first entry of the key, or -1; a binary search straight on the mapping
+	public int find(long key) {
+		int low = 0;
+		int high = entries - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (key(middle) < key) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return (low < entries && key(low) == key) ? low : -1;
+	}
+
+	// copies up to moves.length book moves of the key with their weights, best first
+	public int getMoves(long key, int[] moves, int[] weights) {
+		int first = find(key);
+		if (first < 0) {
+			return 0;
+		}
+		int count = 0;
+		for (int i = first; i < entries && count < moves.length && key(i) == key; i++) {
+			moves[count] = getMove(i);
+			weights[count] = getWeight(i);
+			count++;
+		}
+		return count;
+	}
+
+	// the legal move of the heaviest entry, 0 when the position is not in the book
+	public int bestMove(ChessMatch match, MoveList moves) {
+		int first = find(match.getHashKey());
+		return (first < 0) ? 0 : legalMove(match, getMove(first), moves);
+	}
+
+	// a legal book move picked with a chance proportional to its weight, 0 when there is none
+	public int pickMove(ChessMatch match, MoveList moves, Random random) {
+		long key = match.getHashKey();
+		int first = find(key);
+		if (first < 0) {
+			return 0;
+		}
+		int total = 0;
+		for (int i = first; i < entries && key(i) == key; i++) {
+			total += getWeight(i);
+		}
+		if (total == 0) {
+			return legalMove(match, getMove(first), moves);
+		}
+		int pick = random.nextInt(total);
+		for (int i = first; i < entries && key(i) == key; i++) {
+			pick -= getWeight(i);
+			if (pick < 0) {
+				return legalMove(match, getMove(i), moves);
+			}
+		}
+		return 0;
+	}
+
+	public long key(int entry) {
+		return buffer.getLong(entry * ENTRY_SIZE);
+	}
+
+	public int getMove(int entry) {
+		return Short.toUnsignedInt(buffer.getShort(entry * ENTRY_SIZE + 8));
+	}
+
+	public int getWeight(int entry) {
+		return Short.toUnsignedInt(buffer.getShort(entry * ENTRY_SIZE + 10));
+	}
+
+	public int getGames(int entry) {
+		return buffer.getInt(entry * ENTRY_SIZE + 12);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// a hash collision or a stale book may name a move that is not legal
+	private static int legalMove(ChessMatch match, int encoded, MoveList moves) {
+		match.legalMoves(moves);
+		for (int i = 0; i < moves.size(); i++) {
+			if (GameArchive.encode(moves.get(i)) == encoded) {
+				return moves.get(i);
+			}
+		}
+		return 0;
+	}
+}
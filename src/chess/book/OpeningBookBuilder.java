@@ -0,0 +1,112 @@
+package chess.book;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.MoveList;
+import chess.archive.ArchivedGame;
+import chess.archive.GameArchive;
+
+// Collects the moves played in the first plies of many games and writes them as a sorted
+// book. A move weighs 2 for every game the mover won and 1 for every draw or unknown result.
+public class OpeningBookBuilder {
+
+	private int maxPly;
+	private int minGames;
+	private Map<Long, Map<Integer, long[]>> positions = new HashMap<>();
+	private MoveList moveBuffer = new MoveList();
+	private long games;
+
+	public OpeningBookBuilder(int maxPly, int minGames) {
+		this.maxPly = maxPly;
+		this.minGames = minGames;
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public int getPositions() {
+		return positions.size();
+	}
+
+	// a game the caller has already played through: the hash key of the position before each
+	// move and the move in packed Move form, so nothing is replayed here. The result is
+	// GameArchive.WHITE_WINS and so on
+	public void addGame(long[] keys, int[] moves, int plies, Color firstMover, int result) {
+		Color mover = firstMover;
+		for (int ply = 0; ply < Math.min(maxPly, plies); ply++) {
+			add(keys[ply], mover, moves[ply], result);
+			mover = (mover == Color.WHITE) ? Color.BLACK : Color.WHITE;
+		}
+		games++;
+	}
+
+	public void addArchive(GameArchive archive) {
+		for (ArchivedGame game : archive) {
+			String fen = game.getStartFen();
+			ChessMatch match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+			for (int ply = 0; ply < Math.min(maxPly, game.getMoveCount()); ply++) {
+				int move = ArchivedGame.decode(match, game.getEncodedMove(ply), moveBuffer);
+				add(match.getHashKey(), match.getcurrentPlayer(), move, game.getResult());
+				match.makeMove(move);
+			}
+			games++;
+		}
+	}
+
+	public int write(Path path) throws IOException {
+		List<long[]> entries = new ArrayList<>();
+		for (Map.Entry<Long, Map<Integer, long[]>> position : positions.entrySet()) {
+			long max = 0;
+			for (long[] stats : position.getValue().values()) {
+				max = Math.max(max, stats[0]);
+			}
+			for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+				long[] stats = move.getValue();
+				if (stats[1] < minGames) {
+					continue;
+				}
+				// weights are scaled into 16 bits per position
+				long weight = (max > 0xFFFF) ? stats[0] * 0xFFFF / max : stats[0];
+				entries.add(new long[] { position.getKey(), move.getKey(), weight, Math.min(stats[1], Integer.MAX_VALUE) });
+			}
+		}
+		entries.sort((a, b) -> (a[0] != b[0]) ? Long.compare(a[0], b[0]) : Long.compare(b[2], a[2]));
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+			for (long[] entry : entries) {
+				out.writeLong(entry[0]);
+				out.writeShort((int) entry[1]);
+				out.writeShort((int) entry[2]);
+				out.writeInt((int) entry[3]);
+			}
+		}
+		return entries.size();
+	}
+
+	private void add(long key, Color mover, int move, int result) {
+		boolean white = mover == Color.WHITE;
+		int points;
+		if (result == GameArchive.WHITE_WINS) {
+			points = white ? 2 : 0;
+		} else if (result == GameArchive.BLACK_WINS) {
+			points = white ? 0 : 2;
+		} else {
+			points = 1;
+		}
+		long[] stats = positions.computeIfAbsent(key, k -> new HashMap<>())
+				.computeIfAbsent(GameArchive.encode(move), k -> new long[2]);
+		stats[0] += points;
+		stats[1]++;
+	}
+}
@@ -0,0 +1,121 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+// Scores the moves of a node and hands them out best first. Only the move that is
+// searched next gets selected, so a node that cuts off early never sorts the rest.
+public class MoveOrdering {
+
+	private static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 2000 };
+
+	private static final int HASH_MOVE = 3_000_000;
+	private static final int CAPTURE = 2_000_000;
+	private static final int FIRST_KILLER = 1_000_100;
+	private static final int SECOND_KILLER = 1_000_000;
+	private static final int HISTORY_LIMIT = 1_000_000;
+
+	private ChessMatch match;
+	private int[][] scores = new int[Search.MAX_PLY][256];
+	private int[][] killers = new int[Search.MAX_PLY][2];
+	// color and piece type of the moving piece by target square
+	private int[][] history = new int[12][64];
+
+	public MoveOrdering(ChessMatch match) {
+		this.match = match;
+	}
+
+	// between searches: killers belong to the old position, history only fades
+	public void newSearch() {
+		for (int[] slots : killers) {
+			slots[0] = 0;
+			slots[1] = 0;
+		}
+		for (int[] targets : history) {
+			for (int i = 0; i < targets.length; i++) {
+				targets[i] /= 2;
+			}
+		}
+	}
+
+	// the hash move first, then captures by MVV-LVA, killers, and quiet moves by history
+	public void score(MoveList moves, int ply, int hashMove) {
+		int[] plyScores = scores[ply];
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if (move == hashMove) {
+				plyScores[i] = HASH_MOVE;
+			} else if (Move.isCapture(move) || Move.isPromotion(move)) {
+				plyScores[i] = CAPTURE + mvvLva(move);
+			} else if (move == killers[ply][0]) {
+				plyScores[i] = FIRST_KILLER;
+			} else if (move == killers[ply][1]) {
+				plyScores[i] = SECOND_KILLER;
+			} else {
+				plyScores[i] = history[pieceIndex(Move.getFrom(move))][Move.getTo(move)];
+			}
+		}
+	}
+
+	// swaps the best of the moves not yet searched into place and returns it
+	public int next(MoveList moves, int ply, int index) {
+		int[] plyScores = scores[ply];
+		int best = index;
+		for (int i = index + 1; i < moves.size(); i++) {
+			if (plyScores[i] > plyScores[best]) {
+				best = i;
+			}
+		}
+		int move = moves.get(best);
+		if (best != index) {
+			moves.set(best, moves.get(index));
+			moves.set(index, move);
+			int score = plyScores[best];
+			plyScores[best] = plyScores[index];
+			plyScores[index] = score;
+		}
+		return move;
+	}
+
+	// a quiet move caused a beta cutoff, called with the move taken back
+	public void cutoff(int move, int ply, int depth) {
+		if (Move.isCapture(move) || Move.isPromotion(move)) {
+			return;
+		}
+		if (killers[ply][0] != move) {
+			killers[ply][1] = killers[ply][0];
+			killers[ply][0] = move;
+		}
+		int[] targets = history[pieceIndex(Move.getFrom(move))];
+		targets[Move.getTo(move)] += depth * depth;
+		if (targets[Move.getTo(move)] >= HISTORY_LIMIT) {
+			for (int[] row : history) {
+				for (int i = 0; i < row.length; i++) {
+					row[i] /= 2;
+				}
+			}
+		}
+	}
+
+	// most valuable victim first, the cheaper attacker breaks ties
+	private int mvvLva(int move) {
+		int value = 0;
+		if (Move.isCapture(move)) {
+			ChessPiece victim = match.pieceAt(Move.getTo(move));
+			// an en passant target square is empty
+			value = (victim == null) ? PIECE_VALUES[0] : PIECE_VALUES[victim.getType().ordinal()];
+		}
+		if (Move.isPromotion(move)) {
+			value += PIECE_VALUES[Move.getPromotion(move).ordinal()];
+		}
+		ChessPiece attacker = match.pieceAt(Move.getFrom(move));
+		return value * 16 - attacker.getType().ordinal();
+	}
+
+	private int pieceIndex(int square) {
+		ChessPiece piece = match.pieceAt(square);
+		return piece.getColor().ordinal() * 6 + piece.getType().ordinal();
+	}
+}
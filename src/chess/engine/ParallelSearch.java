@@ -0,0 +1,99 @@
+package chess.engine;
+
+import chess.ChessMatch;
+import chess.book.OpeningBook;
+import chess.tablebase.Tablebase;
+
+// Lazy SMP: every thread runs its own iterative deepening on a copy of the match and
+// they only share the transposition table. The calling thread searches the match
+// itself and its result is the one returned, the helpers just fill the table.
+public class ParallelSearch {
+
+	private ChessMatch match;
+	private TranspositionTable table;
+	private Tablebase tablebase;
+	private Search[] searches;
+
+	public ParallelSearch(ChessMatch match, int threads, TranspositionTable table) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one search thread is needed");
+		}
+		this.match = match;
+		this.table = table;
+		searches = new Search[threads];
+		searches[0] = new Search(match, table);
+	}
+
+	public int getThreads() {
+		return searches.length;
+	}
+
+	public TranspositionTable getTable() {
+		return table;
+	}
+
+	public Search getMainSearch() {
+		return searches[0];
+	}
+
+	public void setBook(OpeningBook book) {
+		searches[0].setBook(book);
+	}
+
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+		searches[0].setTablebase(tablebase);
+	}
+
+	// call before handing the search to the thread that runs it, see Search.resetStop()
+	public void resetStop() {
+		searches[0].resetStop();
+	}
+
+	// may be called from another thread
+	public void stop() {
+		for (Search search : searches) {
+			if (search != null) {
+				search.stop();
+			}
+		}
+	}
+
+	public SearchResult search(SearchLimits limits) {
+		SearchResult bookResult = searches[0].probeBook();
+		if (bookResult != null) {
+			return bookResult;
+		}
+		if (table != null) {
+			table.newSearch();
+		}
+		Thread[] helpers = new Thread[searches.length - 1];
+		for (int i = 1; i < searches.length; i++) {
+			// helpers always start from the current position of the match
+			Search helper = new Search(new ChessMatch(match), table);
+			helper.setStartDepth(1 + i % 2);
+			helper.setTablebase(tablebase);
+			searches[i] = helper;
+			helpers[i - 1] = new Thread(() -> helper.search(limits), "search-" + i);
+			helpers[i - 1].setDaemon(true);
+			helpers[i - 1].start();
+		}
+
+		SearchResult result = searches[0].search(limits);
+
+		long nodes = searches[0].getNodes();
+		for (int i = 1; i < searches.length; i++) {
+			searches[i].stop();
+			try {
+				helpers[i - 1].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			nodes += searches[i].getNodes();
+			searches[i] = null;
+		}
+
+		return new SearchResult(result.getPrincipalVariation(), result.getScore(), result.getDepth(), nodes,
+				result.getNanos(), result.isBookMove());
+	}
+}
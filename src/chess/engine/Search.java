@@ -0,0 +1,364 @@
+package chess.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.book.OpeningBook;
+import chess.tablebase.Tablebase;
+
+// Iterative deepening principal variation search over a ChessMatch. The match is
+// played forward and taken back with makeMove/undoMove, so it must not be used
+// by anyone else while a search runs.
+public class Search {
+
+	public static final int MATE = 30000;
+	public static final int INFINITY = 32000;
+	public static final int MAX_PLY = 128;
+
+	private ChessMatch match;
+	private TranspositionTable table;
+	private MoveOrdering ordering;
+	private OpeningBook book;
+	private Tablebase tablebase;
+	private Random bookRandom = new Random();
+	private MoveList[] moveLists = new MoveList[MAX_PLY];
+	private int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+	private int[] pvLength = new int[MAX_PLY];
+	private int[] previousPv = new int[0];
+	private boolean followPv;
+
+	private volatile boolean stopRequested;
+	private boolean stopped;
+	private long nodes;
+	private long nodeLimit;
+	private long deadline;
+	private int rootDepth;
+	private int startDepth = 1;
+	private Consumer<SearchResult> listener;
+
+	public Search(ChessMatch match) {
+		this(match, null);
+	}
+
+	// the table may be shared with searches running on other threads
+	public Search(ChessMatch match, TranspositionTable table) {
+		this.match = match;
+		this.table = table;
+		ordering = new MoveOrdering(match);
+		for (int i = 0; i < MAX_PLY; i++) {
+			moveLists[i] = new MoveList();
+		}
+	}
+
+	// called after every completed iteration
+	public void setListener(Consumer<SearchResult> listener) {
+		this.listener = listener;
+	}
+
+	// may be called from another thread, the search returns its last completed iteration;
+	// the request holds until resetStop(), so a stop that comes before the search starts is not lost
+	public void stop() {
+		stopRequested = true;
+	}
+
+	// call before handing the search to the thread that runs it
+	public void resetStop() {
+		stopRequested = false;
+	}
+
+	// book moves are played without searching, picked by their weights
+	public void setBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	// the book move as a result marked as such, null when the position is out of book
+	SearchResult probeBook() {
+		if (book == null) {
+			return null;
+		}
+		int move = book.pickMove(match, moveLists[0], bookRandom);
+		return (move == 0) ? null : new SearchResult(new int[] { move }, 0, 0, 0, 0, true);
+	}
+
+	// positions with a table are scored by it instead of being searched
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	// helper threads of a parallel search start deeper so they do not all follow the same path
+	void setStartDepth(int startDepth) {
+		this.startDepth = startDepth;
+	}
+
+	public SearchResult search(SearchLimits limits) {
+		SearchResult bookResult = probeBook();
+		if (bookResult != null) {
+			return bookResult;
+		}
+		long start = System.nanoTime();
+		stopped = stopRequested;
+		nodes = 0;
+		nodeLimit = limits.getNodes();
+		deadline = (limits.getTimeMillis() > 0) ? start + limits.getTimeMillis() * 1_000_000L : Long.MAX_VALUE;
+		previousPv = new int[0];
+		ordering.newSearch();
+
+		match.legalMoves(moveLists[0]);
+		if (moveLists[0].size() == 0) {
+			return new SearchResult(new int[0], match.getCheck() ? -MATE : 0, 0, 0, System.nanoTime() - start);
+		}
+
+		SearchResult result = null;
+		for (rootDepth = Math.min(startDepth, limits.getDepth()); rootDepth <= limits.getDepth(); rootDepth++) {
+			followPv = true;
+			int score = pvs(rootDepth, 0, -INFINITY, INFINITY);
+			if (stopped) {
+				if (result == null) {
+					result = interruptedResult(start);
+				}
+				break;
+			}
+			previousPv = Arrays.copyOf(pvTable[0], pvLength[0]);
+			result = new SearchResult(previousPv.clone(), score, rootDepth, nodes, System.nanoTime() - start);
+			if (listener != null) {
+				listener.accept(result);
+			}
+			if (stopped || Math.abs(score) >= MATE - MAX_PLY) {
+				break;
+			}
+		}
+		return result;
+	}
+
+	// stopped before the first iteration finished: the best root move so far, or the
+	// first one in order, so there always is a move to play
+	private SearchResult interruptedResult(long start) {
+		int[] pv = (pvLength[0] > 0) ? Arrays.copyOf(pvTable[0], pvLength[0]) : new int[] { moveLists[0].get(0) };
+		return new SearchResult(pv, evaluate(), 0, nodes, System.nanoTime() - start);
+	}
+
+	private int pvs(int depth, int ply, int alpha, int beta) {
+		pvLength[ply] = ply;
+		if (ply > 0 && (match.getHalfMoveClock() >= 100 || match.isRepetition())) {
+			return 0;
+		}
+		if (ply > 0 && tablebase != null) {
+			int value = tablebase.probe(match);
+			if (value != Tablebase.UNKNOWN) {
+				return tablebaseScore(value, ply);
+			}
+		}
+		boolean inCheck = match.getCheck();
+		// extend checks, but not so often that a run of checks outgrows the iteration
+		if (inCheck && ply < 2 * rootDepth) {
+			depth++;
+		}
+		if (depth <= 0) {
+			return quiescence(ply, alpha, beta, 0);
+		}
+		if (ply >= MAX_PLY - 1) {
+			return evaluate();
+		}
+
+		nodes++;
+		checkLimits();
+		if (stopped) {
+			return 0;
+		}
+
+		long key = 0;
+		int tableMove = 0;
+		if (table != null) {
+			key = match.getHashKey();
+			long entry = table.probe(key);
+			if (entry != 0) {
+				tableMove = TranspositionTable.move(entry);
+				// only null window nodes take a cutoff, the principal variation is searched in full
+				if (ply > 0 && beta - alpha == 1 && TranspositionTable.depth(entry) >= depth) {
+					int score = fromTable(TranspositionTable.score(entry), ply);
+					int bound = TranspositionTable.bound(entry);
+					if (bound == TranspositionTable.EXACT
+							|| bound == TranspositionTable.LOWER && score >= beta
+							|| bound == TranspositionTable.UPPER && score <= alpha) {
+						return Math.max(alpha, Math.min(beta, score));
+					}
+				}
+			}
+		}
+
+		MoveList moves = moveLists[ply];
+		match.legalMoves(moves);
+		if (moves.size() == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		ordering.score(moves, ply, hashMove(moves, ply, tableMove));
+
+		int originalAlpha = alpha;
+		int bestMove = 0;
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = ordering.next(moves, ply, i);
+			match.makeMove(move);
+			int score;
+			if (i == 0) {
+				score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+			} else {
+				// null window first, search again only if the move turns out better
+				score = -pvs(depth - 1, ply + 1, -alpha - 1, -alpha);
+				if (score > alpha && score < beta) {
+					score = -pvs(depth - 1, ply + 1, -beta, -alpha);
+				}
+			}
+			match.undoMove();
+			if (stopped) {
+				return 0;
+			}
+
+			if (score > alpha) {
+				alpha = score;
+				bestMove = move;
+				pvTable[ply][ply] = move;
+				System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - ply - 1);
+				pvLength[ply] = pvLength[ply + 1];
+				if (alpha >= beta) {
+					ordering.cutoff(move, ply, depth);
+					if (table != null) {
+						table.store(key, move, toTable(beta, ply), depth, TranspositionTable.LOWER);
+					}
+					return beta;
+				}
+			}
+		}
+		if (table != null) {
+			table.store(key, bestMove, toTable(alpha, ply), depth,
+					(alpha > originalAlpha) ? TranspositionTable.EXACT : TranspositionTable.UPPER);
+		}
+		return alpha;
+	}
+
+	// a table knows the distance to mate exactly
+	private static int tablebaseScore(int value, int ply) {
+		if (value == Tablebase.DRAW) {
+			return 0;
+		}
+		int distance = ply + Tablebase.getDistance(value);
+		return Tablebase.isWin(value) ? MATE - distance : -MATE + distance;
+	}
+
+	// mate scores are stored relative to the position, not to the root
+	private int toTable(int score, int ply) {
+		if (score >= MATE - MAX_PLY) {
+			return score + ply;
+		}
+		if (score <= -MATE + MAX_PLY) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	private int fromTable(int score, int ply) {
+		if (score >= MATE - MAX_PLY) {
+			return score - ply;
+		}
+		if (score <= -MATE + MAX_PLY) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	private int quiescence(int ply, int alpha, int beta, int evasions) {
+		pvLength[ply] = ply;
+		nodes++;
+		checkLimits();
+		if (stopped) {
+			return 0;
+		}
+
+		// a long run of checks would never end, after a couple of evasions stand pat anyway
+		boolean inCheck = match.getCheck();
+		boolean evade = inCheck && evasions < 2;
+		if (!evade) {
+			int standPat = evaluate();
+			if (standPat >= beta) {
+				return beta;
+			}
+			if (standPat > alpha) {
+				alpha = standPat;
+			}
+		}
+		if (ply >= MAX_PLY - 1) {
+			return evaluate();
+		}
+
+		MoveList moves = moveLists[ply];
+		match.legalMoves(moves);
+		if (moves.size() == 0) {
+			return inCheck ? -MATE + ply : 0;
+		}
+		ordering.score(moves, ply, 0);
+
+		for (int i = 0; i < moves.size(); i++) {
+			int move = ordering.next(moves, ply, i);
+			// out of check every evasion counts, otherwise only captures and promotions
+			if (!evade && !Move.isCapture(move) && !Move.isPromotion(move)) {
+				continue;
+			}
+			match.makeMove(move);
+			int score = -quiescence(ply + 1, -beta, -alpha, evade ? evasions + 1 : evasions);
+			match.undoMove();
+			if (stopped) {
+				return 0;
+			}
+			if (score > alpha) {
+				alpha = score;
+				if (alpha >= beta) {
+					return beta;
+				}
+			}
+		}
+		return alpha;
+	}
+
+	// the move of the previous iteration while still on its path, otherwise the table move
+	private int hashMove(MoveList moves, int ply, int tableMove) {
+		if (followPv) {
+			followPv = false;
+			if (ply < previousPv.length) {
+				for (int i = 0; i < moves.size(); i++) {
+					if (moves.get(i) == previousPv[ply]) {
+						followPv = true;
+						return previousPv[ply];
+					}
+				}
+			}
+		}
+		return tableMove;
+	}
+
+	private int evaluate() {
+		int score = match.getEvaluation();
+		return (match.getcurrentPlayer() == Color.WHITE) ? score : -score;
+	}
+
+	private void checkLimits() {
+		if (stopRequested) {
+			stopped = true;
+			return;
+		}
+		if ((nodes & 1023) != 0) {
+			return;
+		}
+		if ((nodeLimit > 0 && nodes >= nodeLimit) || System.nanoTime() >= deadline) {
+			stopped = true;
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package chess.engine;
+
+public class SearchLimits {
+
+	public static final int MAX_DEPTH = 64;
+
+	private int depth;
+	private long nodes;
+	private long timeMillis;
+
+	// 0 means no limit for nodes and time
+	public SearchLimits(int depth, long nodes, long timeMillis) {
+		if (depth < 1 || depth > MAX_DEPTH) {
+			throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+		}
+		this.depth = depth;
+		this.nodes = nodes;
+		this.timeMillis = timeMillis;
+	}
+
+	public static SearchLimits depth(int depth) {
+		return new SearchLimits(depth, 0, 0);
+	}
+
+	public static SearchLimits time(long timeMillis) {
+		return new SearchLimits(MAX_DEPTH, 0, timeMillis);
+	}
+
+	public static SearchLimits nodes(long nodes) {
+		return new SearchLimits(MAX_DEPTH, nodes, 0);
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getTimeMillis() {
+		return timeMillis;
+	}
+}
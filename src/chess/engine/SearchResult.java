@@ -0,0 +1,90 @@
+package chess.engine;
+
+import chess.ChessPosition;
+import chess.Move;
+import chess.PieceType;
+
+public class SearchResult {
+
+	private int[] pv;
+	private int score;
+	private int depth;
+	private long nodes;
+	private long nanos;
+	private boolean book;
+
+	public SearchResult(int[] pv, int score, int depth, long nodes, long nanos) {
+		this(pv, score, depth, nodes, nanos, false);
+	}
+
+	public SearchResult(int[] pv, int score, int depth, long nodes, long nanos, boolean book) {
+		this.pv = pv;
+		this.score = score;
+		this.depth = depth;
+		this.nodes = nodes;
+		this.nanos = nanos;
+		this.book = book;
+	}
+
+	// packed Move, 0 when the side to move has no legal move
+	public int getBestMove() {
+		return pv.length > 0 ? pv[0] : 0;
+	}
+
+	public ChessPosition getSource() {
+		return ChessPosition.fromSquare(Move.getFrom(getBestMove()));
+	}
+
+	public ChessPosition getTarget() {
+		return ChessPosition.fromSquare(Move.getTo(getBestMove()));
+	}
+
+	// null unless the best move promotes
+	public PieceType getPromotion() {
+		return Move.getPromotion(getBestMove());
+	}
+
+	public int[] getPrincipalVariation() {
+		return pv.clone();
+	}
+
+	// centipawns from the side to move, Search.MATE - plies for a forced mate
+	public int getScore() {
+		return score;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public long getNodes() {
+		return nodes;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	// taken from the opening book without searching
+	public boolean isBookMove() {
+		return book;
+	}
+
+	public long getNodesPerSecond() {
+		return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+	}
+
+	@Override
+	public String toString() {
+		if (isBookMove()) {
+			return "book " + Move.toString(pv[0]);
+		}
+		StringBuilder sb = new StringBuilder();
+		sb.append("depth ").append(depth).append(" score ").append(score).append(" nodes ").append(nodes)
+				.append(" nps ").append(getNodesPerSecond()).append(" time ").append(nanos / 1_000_000).append(" pv");
+		for (int move : pv) {
+			sb.append(' ').append(Move.toString(move));
+		}
+		return sb.toString();
+	}
+}
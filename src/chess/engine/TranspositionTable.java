@@ -0,0 +1,134 @@
+package chess.engine;
+
+// Search results by position hash, shared by all search threads without locks.
+// Every slot keeps its key xor'ed with its data, so a slot torn by two threads
+// writing at the same time fails the key check instead of returning a wrong entry.
+public class TranspositionTable {
+
+	public static final int EXACT = 1;
+	public static final int LOWER = 2;
+	public static final int UPPER = 3;
+
+	private static final int BUCKET_SIZE = 4;
+	private static final int ENTRY_BYTES = 16;
+
+	// data layout: move 19 bits, score 16 bits, depth 8 bits, bound 2 bits, generation 6 bits
+	private static final int SCORE_SHIFT = 19;
+	private static final int DEPTH_SHIFT = 35;
+	private static final int BOUND_SHIFT = 43;
+	private static final int GENERATION_SHIFT = 45;
+	private static final int GENERATION_MASK = 0x3F;
+
+	private long[] keys;
+	private long[] data;
+	private int bucketMask;
+	private int generation;
+
+	public TranspositionTable(int megabytes) {
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("Table size must be at least 1 MB");
+		}
+		long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES / BUCKET_SIZE);
+		buckets = Math.min(buckets, Long.highestOneBit(Integer.MAX_VALUE / BUCKET_SIZE));
+		keys = new long[(int) buckets * BUCKET_SIZE];
+		data = new long[keys.length];
+		bucketMask = (int) buckets - 1;
+	}
+
+	public int getSize() {
+		return keys.length;
+	}
+
+	// call before each search, entries of earlier ones are then the first to be replaced
+	public void newSearch() {
+		generation = (generation + 1) & GENERATION_MASK;
+	}
+
+	// the packed entry for the key, 0 when there is none
+	public long probe(long key) {
+		int first = bucket(key);
+		for (int i = first; i < first + BUCKET_SIZE; i++) {
+			long entry = data[i];
+			if ((keys[i] ^ entry) == key && entry != 0) {
+				return entry;
+			}
+		}
+		return 0;
+	}
+
+	// an entry of the same position is always replaced, otherwise the one worth least in the
+	// bucket: shallow, or left over from searches before this one
+	public void store(long key, int move, int score, int depth, int bound) {
+		int first = bucket(key);
+		int slot = first;
+		for (int i = first; i < first + BUCKET_SIZE; i++) {
+			long entry = data[i];
+			if ((keys[i] ^ entry) == key || entry == 0) {
+				slot = i;
+				if (move == 0 && entry != 0) {
+					move = move(entry);
+				}
+				break;
+			}
+			if (worth(entry) < worth(data[slot])) {
+				slot = i;
+			}
+		}
+		long entry = (move & 0x7FFFFL)
+				| ((score & 0xFFFFL) << SCORE_SHIFT)
+				| ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) generation << GENERATION_SHIFT);
+		keys[slot] = key ^ entry;
+		data[slot] = entry;
+	}
+
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = 0;
+			data[i] = 0;
+		}
+	}
+
+	// slots used by the current search per thousand, from a sample at the start of the table
+	public int hashfull() {
+		int sample = Math.min(1000, data.length);
+		int used = 0;
+		for (int i = 0; i < sample; i++) {
+			if (data[i] != 0 && age(data[i]) == 0) {
+				used++;
+			}
+		}
+		return used * 1000 / sample;
+	}
+
+	public static int move(long entry) {
+		return (int) (entry & 0x7FFFF);
+	}
+
+	public static int score(long entry) {
+		return (short) (entry >>> SCORE_SHIFT);
+	}
+
+	public static int depth(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	public static int bound(long entry) {
+		return (int) (entry >>> BOUND_SHIFT) & 0x3;
+	}
+
+	// searches since the entry was stored
+	private int age(long entry) {
+		return (generation - (int) (entry >>> GENERATION_SHIFT)) & GENERATION_MASK;
+	}
+
+	// each search of age counts as much as eight plies of depth
+	private int worth(long entry) {
+		return depth(entry) - 8 * age(entry);
+	}
+
+	private int bucket(long key) {
+		return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+	}
+}
@@ -0,0 +1,49 @@
+package chess.pgn;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// One game as read from a PGN file: tag pairs, moves in SAN and the result
+public class PgnGame {
+
+	private long number;
+	private Map<String, String> tags;
+	private List<String> moves;
+	private String result;
+
+	public PgnGame(long number, Map<String, String> tags, List<String> moves, String result) {
+		this.number = number;
+		this.tags = Collections.unmodifiableMap(tags);
+		this.moves = Collections.unmodifiableList(moves);
+		this.result = result;
+	}
+
+	// position of the game in its file, counted from 1
+	public long getNumber() {
+		return number;
+	}
+
+	public Map<String, String> getTags() {
+		return tags;
+	}
+
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	public List<String> getMoves() {
+		return moves;
+	}
+
+	// 1-0, 0-1, 1/2-1/2 or * when unknown
+	public String getResult() {
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "Game " + number + " " + tags.getOrDefault("White", "?") + " - " + tags.getOrDefault("Black", "?")
+				+ " " + result;
+	}
+}
@@ -0,0 +1,183 @@
+package chess.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reads PGN one game at a time from a stream, so memory does not depend on the file
+// size. Comments, variations, NAGs and move numbers are skipped, only the tag pairs,
+// the mainline SAN moves and the result are kept.
+public class PgnReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private Reader in;
+	private char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long line = 1;
+	private long games;
+	private StringBuilder token = new StringBuilder(64);
+
+	public PgnReader(Reader in) {
+		this.in = in;
+	}
+
+	// the next game, null at the end of the input
+	public PgnGame next() throws IOException {
+		Map<String, String> tags = new LinkedHashMap<>();
+		List<String> moves = new ArrayList<>();
+		String result = null;
+
+		int c;
+		while ((c = peek()) >= 0) {
+			if (Character.isWhitespace(c)) {
+				read();
+			} else if (c == '[') {
+				if (!moves.isEmpty()) {
+					// the next game starts without a result for this one
+					break;
+				}
+				readTag(tags);
+			} else if (c == '{') {
+				skipUntil('}');
+			} else if (c == ';' || c == '%') {
+				skipUntil('\n');
+			} else if (c == '(') {
+				skipVariation();
+			} else if (c == ')' || c == '}' || c == ']') {
+				// stray closing bracket, nothing to keep
+				read();
+			} else {
+				String word = readToken();
+				if (isResult(word)) {
+					result = word;
+					break;
+				}
+				String san = stripMoveNumber(word);
+				if (!san.isEmpty() && san.charAt(0) != '$') {
+					moves.add(san);
+				}
+			}
+		}
+
+		if (tags.isEmpty() && moves.isEmpty() && result == null) {
+			return null;
+		}
+		if (result == null) {
+			result = tags.getOrDefault("Result", "*");
+		}
+		return new PgnGame(++games, tags, moves, result);
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private void readTag(Map<String, String> tags) throws IOException {
+		read();
+		String name = readToken();
+		int c;
+		while ((c = read()) >= 0 && c != '"') {
+			if (c == ']' || c == '\n') {
+				// a tag without a value, nothing to keep
+				return;
+			}
+		}
+		token.setLength(0);
+		while ((c = read()) >= 0 && c != '"') {
+			if (c == '\\') {
+				c = read();
+			}
+			token.append((char) c);
+		}
+		String value = token.toString();
+		skipUntil(']');
+		tags.put(name, value);
+	}
+
+	// nested variations may hold comments with parentheses of their own
+	private void skipVariation() throws IOException {
+		int depth = 0;
+		int c;
+		while ((c = read()) >= 0) {
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				if (--depth == 0) {
+					return;
+				}
+			} else if (c == '{') {
+				skipUntil('}');
+			} else if (c == ';') {
+				skipUntil('\n');
+			}
+		}
+	}
+
+	private void skipUntil(char end) throws IOException {
+		int c;
+		while ((c = read()) >= 0 && c != end) {
+		}
+	}
+
+	private String readToken() throws IOException {
+		token.setLength(0);
+		int c;
+		while ((c = peek()) >= 0 && !Character.isWhitespace(c) && "{}()[];\"".indexOf(c) < 0) {
+			token.append((char) read());
+		}
+		return token.toString();
+	}
+
+	private static boolean isResult(String word) {
+		return word.equals("1-0") || word.equals("0-1") || word.equals("1/2-1/2") || word.equals("*");
+	}
+
+	// "12." and "12..." as tokens of their own or glued to the move as in "12.e4"
+	private static String stripMoveNumber(String word) {
+		int i = 0;
+		while (i < word.length() && Character.isDigit(word.charAt(i))) {
+			i++;
+		}
+		if (i == 0 || i == word.length() || word.charAt(i) == '.') {
+			while (i < word.length() && word.charAt(i) == '.') {
+				i++;
+			}
+			return word.substring(i);
+		}
+		return word;
+	}
+
+	private int peek() throws IOException {
+		if (position == limit) {
+			limit = in.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position];
+	}
+
+	private int read() throws IOException {
+		int c = peek();
+		if (c >= 0) {
+			position++;
+			if (c == '\n') {
+				line++;
+			}
+		}
+		return c;
+	}
+}
@@ -0,0 +1,151 @@
+package chess.pgn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BiConsumer;
+
+import chess.ChessMatch;
+import chess.MoveList;
+
+// Replays every game of a PGN stream through the rules. The calling thread parses and
+// hands games over a bounded queue to the replay threads, so parsing and replaying
+// overlap and a slow consumer holds the reader back instead of filling the memory.
+public class PgnReplayer {
+
+	private static final int MAX_ERRORS = 1000;
+
+	// tells a replay thread that no more games will come
+	private static final PgnGame END = new PgnGame(0, new HashMap<>(), new ArrayList<>(), "*");
+
+	private int threads;
+	private int queueCapacity;
+	private BiConsumer<PgnGame, ChessMatch> positionListener;
+
+	public PgnReplayer(int threads, int queueCapacity) {
+		if (threads < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("Threads and queue capacity must be positive");
+		}
+		this.threads = threads;
+		this.queueCapacity = queueCapacity;
+	}
+
+	// called on a replay thread after every move, the match must not be kept
+	public void setPositionListener(BiConsumer<PgnGame, ChessMatch> positionListener) {
+		this.positionListener = positionListener;
+	}
+
+	public ReplayReport replay(Reader in) throws IOException {
+		long start = System.nanoTime();
+		BlockingQueue<PgnGame> queue = new ArrayBlockingQueue<>(queueCapacity);
+		List<ReplayError> errors = Collections.synchronizedList(new ArrayList<>());
+		Worker[] workers = new Worker[threads];
+		Thread[] workerThreads = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(queue, errors);
+			workerThreads[i] = new Thread(workers[i], "pgn-replay-" + i);
+			workerThreads[i].start();
+		}
+
+		try (PgnReader reader = new PgnReader(in)) {
+			PgnGame game;
+			while ((game = reader.next()) != null) {
+				queue.put(game);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				for (int i = 0; i < threads; i++) {
+					queue.put(END);
+				}
+				for (Thread thread : workerThreads) {
+					thread.join();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		long games = 0;
+		long failed = 0;
+		long moves = 0;
+		for (Worker worker : workers) {
+			games += worker.games;
+			failed += worker.failed;
+			moves += worker.moves;
+		}
+		return new ReplayReport(games, failed, moves, System.nanoTime() - start, errors);
+	}
+
+	// replays one game on the calling thread, null when it is legal
+	public ReplayError replay(PgnGame game, MoveList moves) {
+		ChessMatch match;
+		try {
+			String fen = game.getTag("FEN");
+			match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+		} catch (RuntimeException e) {
+			return new ReplayError(game.getNumber(), 0, "", e.getMessage());
+		}
+		List<String> sans = game.getMoves();
+		for (int ply = 0; ply < sans.size(); ply++) {
+			String san = sans.get(ply);
+			try {
+				match.makeMove(San.parse(match, san, moves));
+			} catch (RuntimeException e) {
+				return new ReplayError(game.getNumber(), ply, san, e.getMessage());
+			}
+			if (positionListener != null) {
+				// a failing listener ends the game, never the worker, the reader would wait on it forever
+				try {
+					positionListener.accept(game, match);
+				} catch (RuntimeException e) {
+					return new ReplayError(game.getNumber(), ply, san, "Position listener failed: " + e);
+				}
+			}
+		}
+		return null;
+	}
+
+	private class Worker implements Runnable {
+
+		private BlockingQueue<PgnGame> queue;
+		private List<ReplayError> errors;
+		private MoveList moveBuffer = new MoveList();
+		private long games;
+		private long failed;
+		private long moves;
+
+		Worker(BlockingQueue<PgnGame> queue, List<ReplayError> errors) {
+			this.queue = queue;
+			this.errors = errors;
+		}
+
+		@Override
+		public void run() {
+			try {
+				PgnGame game;
+				while ((game = queue.take()) != END) {
+					ReplayError error = replay(game, moveBuffer);
+					games++;
+					if (error == null) {
+						moves += game.getMoves().size();
+					} else {
+						failed++;
+						moves += error.getPly();
+						if (errors.size() < MAX_ERRORS) {
+							errors.add(error);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package chess.pgn;
+
+// A game that could not be replayed and where it went wrong
+public class ReplayError {
+
+	private long game;
+	private int ply;
+	private String move;
+	private String message;
+
+	public ReplayError(long game, int ply, String move, String message) {
+		this.game = game;
+		this.ply = ply;
+		this.move = move;
+		this.message = message;
+	}
+
+	public long getGame() {
+		return game;
+	}
+
+	// half moves played before the failing one
+	public int getPly() {
+		return ply;
+	}
+
+	public String getMove() {
+		return move;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "Game " + game + ", move " + (ply / 2 + 1) + ((ply % 2 == 0) ? ". " : "... ") + move + ": " + message;
+	}
+}
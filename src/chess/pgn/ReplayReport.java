@@ -0,0 +1,56 @@
+package chess.pgn;
+
+import java.util.Collections;
+import java.util.List;
+
+// Totals of a bulk replay, errors beyond the first ones are only counted
+public class ReplayReport {
+
+	private long games;
+	private long failedGames;
+	private long moves;
+	private long nanos;
+	private List<ReplayError> errors;
+
+	public ReplayReport(long games, long failedGames, long moves, long nanos, List<ReplayError> errors) {
+		this.games = games;
+		this.failedGames = failedGames;
+		this.moves = moves;
+		this.nanos = nanos;
+		this.errors = Collections.unmodifiableList(errors);
+	}
+
+	public long getGames() {
+		return games;
+	}
+
+	public long getFailedGames() {
+		return failedGames;
+	}
+
+	public long getMoves() {
+		return moves;
+	}
+
+	public long getNanos() {
+		return nanos;
+	}
+
+	public List<ReplayError> getErrors() {
+		return errors;
+	}
+
+	public double getGamesPerSecond() {
+		return games / Math.max(nanos / 1e9, 1e-9);
+	}
+
+	public double getMovesPerSecond() {
+		return moves / Math.max(nanos / 1e9, 1e-9);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d games (%d failed), %d moves in %.3f s: %.0f games/s, %.0f moves/s", games,
+				failedGames, moves, nanos / 1e9, getGamesPerSecond(), getMovesPerSecond());
+	}
+}
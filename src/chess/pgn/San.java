@@ -0,0 +1,123 @@
+package chess.pgn;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
+
+// Standard algebraic notation against the legal moves of a match
+public class San {
+
+	private static final String PIECES = "PNBRQK";
+
+	private San() {
+	}
+
+	// the legal move of the side to move that the SAN names, the list is used as scratch space
+	public static int parse(ChessMatch match, String san, MoveList moves) {
+		match.legalMoves(moves);
+
+		int end = san.length();
+		while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+			end--;
+		}
+		String text = san.substring(0, end);
+
+		if (text.equals("O-O") || text.equals("0-0")) {
+			return castling(moves, 6, san);
+		}
+		if (text.equals("O-O-O") || text.equals("0-0-0")) {
+			return castling(moves, 2, san);
+		}
+
+		PieceType promotion = null;
+		int equals = text.indexOf('=');
+		if (equals >= 0 && equals == text.length() - 2) {
+			promotion = pieceType(text.charAt(equals + 1), san);
+			text = text.substring(0, equals);
+		} else if (text.length() > 2 && "NBRQ".indexOf(text.charAt(text.length() - 1)) >= 0
+				&& Character.isDigit(text.charAt(text.length() - 2))) {
+			// e8Q without the equals sign
+			promotion = pieceType(text.charAt(text.length() - 1), san);
+			text = text.substring(0, text.length() - 1);
+		}
+
+		if (text.length() < 2) {
+			throw new ChessExceptions("Invalid SAN: " + san);
+		}
+		PieceType type = PieceType.PAWN;
+		int start = 0;
+		if (PIECES.indexOf(text.charAt(0)) >= 0) {
+			type = pieceType(text.charAt(0), san);
+			start = 1;
+		}
+		int to = square(text.charAt(text.length() - 2), text.charAt(text.length() - 1), san);
+
+		// whatever sits between the piece and the target: disambiguation and the capture sign
+		int fromColumn = -1;
+		int fromRow = -1;
+		for (int i = start; i < text.length() - 2; i++) {
+			char c = text.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a';
+			} else if (c >= '1' && c <= '8') {
+				fromRow = '8' - c;
+			} else if (c != 'x' && c != ':' && c != '-') {
+				throw new ChessExceptions("Invalid SAN: " + san);
+			}
+		}
+		if (type == PieceType.PAWN && promotion == null && (to / 8 == 0 || to / 8 == 7)) {
+			promotion = PieceType.QUEEN;
+		}
+
+		int found = 0;
+		int count = 0;
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			int from = Move.getFrom(move);
+			if (Move.getTo(move) != to || Move.getPromotion(move) != promotion
+					|| fromColumn >= 0 && from % 8 != fromColumn || fromRow >= 0 && from / 8 != fromRow) {
+				continue;
+			}
+			ChessPiece piece = match.pieceAt(from);
+			if (piece.getType() == type) {
+				found = move;
+				count++;
+			}
+		}
+		if (count == 0) {
+			throw new ChessExceptions("Illegal move: " + san);
+		}
+		if (count > 1) {
+			throw new ChessExceptions("Ambiguous move: " + san);
+		}
+		return found;
+	}
+
+	private static int castling(MoveList moves, int column, String san) {
+		for (int i = 0; i < moves.size(); i++) {
+			int move = moves.get(i);
+			if ((Move.getFlags(move) & Move.CASTLING) != 0 && Move.getTo(move) % 8 == column) {
+				return move;
+			}
+		}
+		throw new ChessExceptions("Illegal move: " + san);
+	}
+
+	private static PieceType pieceType(char c, String san) {
+		int index = PIECES.indexOf(Character.toUpperCase(c));
+		if (index < 0) {
+			throw new ChessExceptions("Invalid SAN: " + san);
+		}
+		return PieceType.values()[index];
+	}
+
+	private static int square(char file, char rank, String san) {
+		if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+			throw new ChessExceptions("Invalid SAN: " + san);
+		}
+		return ('8' - rank) * 8 + (file - 'a');
+	}
+}
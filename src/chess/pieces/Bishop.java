@@ -1,73 +1,42 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Bishop extends ChessPiece {
-	
+
 	public Bishop(Board board, Color color) {
 		super(board, color);
-		
+	}
+
+	@Override
+	public PieceType getType() {
+		return PieceType.BISHOP;
 	}
 
 	@Override
 	public String toString() {
 		return "B";
 	}
-	
+
+	@Override
+	public void generateMoves(MoveList moves) {
+		addMoves(moves, targets());
+	}
+
+	@Override
+	public long targets() {
+		BitBoard board = getBitBoard();
+		return Attacks.bishopAttacks(getSquare(), board.getOccupied()) & ~board.getPieces(getColor());
+	}
+
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		
-		Position p = new Position(0, 0);
-		
-		
-		//sides
-		  p.setValues(position.getRow() - 1, position.getColum() - 1);
-		  while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-			  p.setRow(p.getRow() - 1);
-			  p.setColum(p.getColum() - 1);
-		  }
-		  if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-		  }
-		  
-		  p.setValues(position.getRow() + 1, position.getColum() - 1);
-		  while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-			  p.setRow(p.getRow() + 1);
-			  p.setColum(p.getColum() - 1);
-		  }
-		  if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-		  }
-		  
-		  p.setValues(position.getRow() - 1, position.getColum() + 1);
-		  while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-			  p.setRow(p.getRow() - 1);
-			  p.setColum(p.getColum() + 1);
-		  }
-		  if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-		  }
-		  
-		  p.setValues(position.getRow() + 1, position.getColum() + 1);
-		  while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-			  p.setRow(p.getRow() + 1);
-			  p.setColum(p.getColum() + 1);
-		  }
-		  if(getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			  mat[p.getRow()][p.getColum()] = true;
-		  }
-		  
-		  
-		
-		  
-		return mat;
-	} 
+	public boolean canMoveTo(int to) {
+		return slidesTo(Attacks.bishopAttacks(getSquare(), 0L), to);
+	}
 }
@@ -1,10 +1,14 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
 
 public class King extends ChessPiece {
 
@@ -16,94 +20,68 @@ public class King extends ChessPiece {
 	}
 
 	@Override
-	public String toString() {
-		return "K";
+	public PieceType getType() {
+		return PieceType.KING;
 	}
 
-	private boolean canMove(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
-		return p == null || p.getColor() != getColor();
+	@Override
+	public String toString() {
+		return "K";
 	}
 
-	private boolean testRookCastling(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
+	private boolean testRookCastling(int row, int column) {
+		if (column < 0 || column >= BitBoard.SIZE) {
+			return false;
+		}
+		ChessPiece p = (ChessPiece) getBoard().piece(row, column);
 		return p != null && p instanceof Rook && p.getColor() == getColor() && p.getMoveCount() == 0;
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		Position p = new Position(0, 0);
-
-		// Above
-		p.setValues(position.getRow() - 1, position.getColum());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		// below
-		p.setValues(position.getRow() + 1, position.getColum());
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		// left
-		p.setValues(position.getRow(), position.getColum() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		// right
-		p.setValues(position.getRow(), position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		// sides
-		p.setValues(position.getRow() - 1, position.getColum() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
+	public void generateMoves(MoveList moves) {
+		int square = getSquare();
+		addMoves(moves, Attacks.kingAttacks(square) & ~getBitBoard().getPieces(getColor()));
+		long castling = castlingTargets();
+		while (castling != 0) {
+			moves.add(Move.create(square, Long.numberOfTrailingZeros(castling), Move.CASTLING));
+			castling &= castling - 1;
 		}
+	}
 
-		p.setValues(position.getRow() - 1, position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
+	@Override
+	public long targets() {
+		return (Attacks.kingAttacks(getSquare()) & ~getBitBoard().getPieces(getColor())) | castlingTargets();
+	}
 
-		p.setValues(position.getRow() + 1, position.getColum() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
+	@Override
+	protected int movesTo(int to, int[] moves) {
+		if (Math.abs(to - getSquare()) == 2) {
+			moves[0] = Move.create(getSquare(), to, Move.CASTLING);
+			return 1;
 		}
+		return super.movesTo(to, moves);
+	}
 
-		p.setValues(position.getRow() + 1, position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
+	// the squares two columns aside the king castles to
+	private long castlingTargets() {
+		if (getMoveCount() != 0 || chessMatch.getCheck()) {
+			return 0L;
 		}
-
-		// castling
+		int square = getSquare();
+		int row = square / BitBoard.SIZE;
+		int column = square % BitBoard.SIZE;
+		long occupied = getBitBoard().getOccupied();
+		long targets = 0L;
 
 		// small
-		if (getMoveCount() == 0 && !chessMatch.getCheck()) {
-			Position RookOnePosition = new Position(position.getRow(), position.getColum() + 3);
-
-			if (testRookCastling(RookOnePosition)) {
-				Position p1 = new Position(position.getRow(), position.getColum() + 1);
-				Position p2 = new Position(position.getRow(), position.getColum() + 2);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null) {
-					mat[position.getRow()][position.getColum() + 2] = true;
-				}
-			}
+		if (testRookCastling(row, column + 3) && (occupied & (3L << (square + 1))) == 0) {
+			targets |= 1L << (square + 2);
 		}
 
 		// Big
-		if (getMoveCount() == 0 && !chessMatch.getCheck()) {
-			Position RookTwoPosition = new Position(position.getRow(), position.getColum() - 4);
-
-			if (testRookCastling(RookTwoPosition)) {
-				Position p1 = new Position(position.getRow(), position.getColum() - 1);
-				Position p2 = new Position(position.getRow(), position.getColum() - 2);
-				Position p3 = new Position(position.getRow(), position.getColum() - 3);
-				if (getBoard().piece(p1) == null && getBoard().piece(p2) == null && getBoard().piece(p3) == null) {
-					mat[position.getRow()][position.getColum() - 2] = true;
-				}
-			}
+		if (testRookCastling(row, column - 4) && (occupied & (7L << (square - 3))) == 0) {
+			targets |= 1L << (square - 2);
 		}
-		return mat;
+		return targets;
 	}
 }
@@ -1,15 +1,21 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
 import chess.ChessPiece;
 import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Knight extends ChessPiece {
 
 	public Knight(Board board, Color color) {
 		super(board, color);
-		// TODO Auto-generated constructor stub
+	}
+
+	@Override
+	public PieceType getType() {
+		return PieceType.KNIGHT;
 	}
 
 	@Override
@@ -17,53 +23,13 @@ public class Knight extends ChessPiece {
 		return "N";
 	}
 
-	private boolean canMove(Position position) {
-		ChessPiece p = (ChessPiece) getBoard().piece(position);
-		return p == null || p.getColor() != getColor();
+	@Override
+	public void generateMoves(MoveList moves) {
+		addMoves(moves, targets());
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-		Position p = new Position(0, 0);
-
-		p.setValues(position.getRow() - 1, position.getColum() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		p.setValues(position.getRow() - 2, position.getColum() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		p.setValues(position.getRow() - 2, position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		p.setValues(position.getRow() - 1, position.getColum() + 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		p.setValues(position.getRow() + 1, position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		
-		p.setValues(position.getRow() + 2, position.getColum() + 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		
-		p.setValues(position.getRow() + 2, position.getColum() - 1);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		
-		p.setValues(position.getRow() + 1, position.getColum() - 2);
-		if (getBoard().positionExists(p) && canMove(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-		
-		
-		return mat;
+	public long targets() {
+		return Attacks.knightAttacks(getSquare()) & ~getBitBoard().getPieces(getColor());
 	}
 }
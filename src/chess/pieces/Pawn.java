@@ -1,10 +1,14 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessMatch;
 import chess.ChessPiece;
 import chess.Color;
+import chess.Move;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Pawn extends ChessPiece {
 
@@ -16,82 +20,111 @@ public class Pawn extends ChessPiece {
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
+	public PieceType getType() {
+		return PieceType.PAWN;
+	}
 
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
+	@Override
+	public void generateMoves(MoveList moves) {
+		BitBoard board = getBitBoard();
+		int square = getSquare();
+		int forward = (getColor() == Color.WHITE) ? -BitBoard.SIZE : BitBoard.SIZE;
+		long occupied = board.getOccupied();
 
-		Position p = new Position(0, 0);
+		int one = square + forward;
+		if (one >= 0 && one < 64 && (occupied & (1L << one)) == 0) {
+			addPawnMove(moves, square, one, Move.NONE);
 
-		if (getColor() == Color.WHITE) {
-			p.setValues(position.getRow() - 1, position.getColum());
-			if (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() - 2, position.getColum());
-			Position p2 = new Position(position.getRow() - 1, position.getColum());
-			if (getBoard().positionExists(p) && !getBoard().threIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().threIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColum() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() - 1, position.getColum() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
+			int two = one + forward;
+			if (getMoveCount() == 0 && two >= 0 && two < 64 && (occupied & (1L << two)) == 0) {
+				moves.add(Move.create(square, two, Move.DOUBLE_PUSH));
 			}
+		}
+
+		long captures = Attacks.pawnAttacks(getColor(), square) & board.getPieces(opponent());
+		while (captures != 0) {
+			addPawnMove(moves, square, Long.numberOfTrailingZeros(captures), Move.CAPTURE);
+			captures &= captures - 1;
+		}
 
-			// White En passant
-			if (position.getRow() == 3) {
-				Position left = new Position(position.getRow(), position.getColum() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left)
-						&& getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() - 1][left.getColum()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColum() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right)
-						&& getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() - 1][right.getColum()] = true;
-				}
+		// En passant
+		int passant = enPassantTarget();
+		if (passant >= 0) {
+			moves.add(Move.create(square, passant, Move.EN_PASSANT));
+		}
+	}
+
+	@Override
+	public long targets() {
+		BitBoard board = getBitBoard();
+		int square = getSquare();
+		int forward = (getColor() == Color.WHITE) ? -BitBoard.SIZE : BitBoard.SIZE;
+		long occupied = board.getOccupied();
+		long targets = Attacks.pawnAttacks(getColor(), square) & board.getPieces(opponent());
+
+		int one = square + forward;
+		if (one >= 0 && one < 64 && (occupied & (1L << one)) == 0) {
+			targets |= 1L << one;
+			int two = one + forward;
+			if (getMoveCount() == 0 && two >= 0 && two < 64 && (occupied & (1L << two)) == 0) {
+				targets |= 1L << two;
 			}
+		}
+
+		int passant = enPassantTarget();
+		if (passant >= 0) {
+			targets |= 1L << passant;
+		}
+		return targets;
+	}
 
+	@Override
+	protected int movesTo(int to, int[] moves) {
+		int from = getSquare();
+		int flags;
+		if (to == enPassantTarget()) {
+			flags = Move.EN_PASSANT;
+		} else if (Math.abs(to - from) == 2 * BitBoard.SIZE) {
+			flags = Move.DOUBLE_PUSH;
 		} else {
-			p.setValues(position.getRow() + 1, position.getColum());
-			if (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() + 2, position.getColum());
-			Position p2 = new Position(position.getRow() + 1, position.getColum());
-			if (getBoard().positionExists(p) && !getBoard().threIsAPiece(p) && getBoard().positionExists(p2)
-					&& !getBoard().threIsAPiece(p2) && getMoveCount() == 0) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColum() - 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
-			p.setValues(position.getRow() + 1, position.getColum() + 1);
-			if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-				mat[p.getRow()][p.getColum()] = true;
-			}
+			flags = (getBitBoard().getOccupied() & (1L << to)) != 0 ? Move.CAPTURE : Move.NONE;
+		}
+		int row = to / BitBoard.SIZE;
+		if (row != 0 && row != BitBoard.SIZE - 1) {
+			moves[0] = Move.create(from, to, flags);
+			return 1;
+		}
+		moves[0] = Move.create(from, to, flags, PieceType.QUEEN);
+		moves[1] = Move.create(from, to, flags, PieceType.ROOK);
+		moves[2] = Move.create(from, to, flags, PieceType.BISHOP);
+		moves[3] = Move.create(from, to, flags, PieceType.KNIGHT);
+		return 4;
+	}
 
-			// Black En passant
-			if (position.getRow() == 4) {
-				Position left = new Position(position.getRow(), position.getColum() - 1);
-				if (getBoard().positionExists(left) && isThereOpponentPiece(left)
-						&& getBoard().piece(left) == chessMatch.getEnPassantVulnerable()) {
-					mat[left.getRow() + 1][left.getColum()] = true;
-				}
-				Position right = new Position(position.getRow(), position.getColum() + 1);
-				if (getBoard().positionExists(right) && isThereOpponentPiece(right)
-						&& getBoard().piece(right) == chessMatch.getEnPassantVulnerable()) {
-					mat[right.getRow() + 1][right.getColum()] = true;
-				}
-			}
+	// the square behind an opponent pawn that just stepped past this one, -1 when there is none
+	private int enPassantTarget() {
+		ChessPiece vulnerable = chessMatch.getEnPassantVulnerable();
+		if (vulnerable == null || vulnerable.getColor() == getColor()) {
+			return -1;
+		}
+		int target = vulnerable.getSquare();
+		if (target < 0) {
+			return -1;
 		}
+		int behind = target + ((getColor() == Color.WHITE) ? -BitBoard.SIZE : BitBoard.SIZE);
+		return (Attacks.pawnAttacks(getColor(), getSquare()) & (1L << behind)) != 0 ? behind : -1;
+	}
 
-		return mat;
+	private void addPawnMove(MoveList moves, int from, int to, int flags) {
+		int row = to / BitBoard.SIZE;
+		if (row == 0 || row == BitBoard.SIZE - 1) {
+			moves.add(Move.create(from, to, flags, PieceType.QUEEN));
+			moves.add(Move.create(from, to, flags, PieceType.ROOK));
+			moves.add(Move.create(from, to, flags, PieceType.BISHOP));
+			moves.add(Move.create(from, to, flags, PieceType.KNIGHT));
+		} else {
+			moves.add(Move.create(from, to, flags));
+		}
 	}
 
 	@Override
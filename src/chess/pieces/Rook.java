@@ -1,9 +1,12 @@
 package chess.pieces;
 
 import boardgame.Board;
-import boardgame.Position;
+import chess.Attacks;
+import chess.BitBoard;
 import chess.ChessPiece;
 import chess.Color;
+import chess.MoveList;
+import chess.PieceType;
 
 public class Rook extends ChessPiece {
 
@@ -11,57 +14,29 @@ public class Rook extends ChessPiece {
 		super(board, color);
 	}
 
+	@Override
+	public PieceType getType() {
+		return PieceType.ROOK;
+	}
+
 	@Override
 	public String toString() {
 		return "R";
 	}
 
 	@Override
-	public boolean[][] possibleMoves() {
-		boolean[][] mat = new boolean[getBoard().getRows()][getBoard().getColumns()];
-
-		Position p = new Position(0, 0);
-
-		// Above
-		p.setValues(position.getRow() - 1, position.getColum());
-		while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-			p.setRow(p.getRow() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-
-		// left
-		p.setValues(position.getRow(), position.getColum() - 1);
-		while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-			p.setColum(p.getColum() - 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
-
-		// Right
-		p.setValues(position.getRow(), position.getColum() + 1);
-		while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-			p.setColum(p.getColum() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
+	public void generateMoves(MoveList moves) {
+		addMoves(moves, targets());
+	}
 
-		// bottom
-		p.setValues(position.getRow() + 1, position.getColum());
-		while (getBoard().positionExists(p) && !getBoard().threIsAPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-			p.setRow(p.getRow() + 1);
-		}
-		if (getBoard().positionExists(p) && isThereOpponentPiece(p)) {
-			mat[p.getRow()][p.getColum()] = true;
-		}
+	@Override
+	public long targets() {
+		BitBoard board = getBitBoard();
+		return Attacks.rookAttacks(getSquare(), board.getOccupied()) & ~board.getPieces(getColor());
+	}
 
-		return mat;
+	@Override
+	public boolean canMoveTo(int to) {
+		return slidesTo(Attacks.rookAttacks(getSquare(), 0L), to);
 	}
 }
@@ -0,0 +1,167 @@
+package chess.server;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+import chess.Color;
+import chess.Move;
+import chess.MoveList;
+
+// A match held by the server. Moves of one match are applied one at a time under its
+// own lock, so sessions of different matches never wait for each other. The lock is a
+// ReentrantLock rather than synchronized so a waiting virtual thread does not pin its
+// carrier thread.
+public class HostedMatch {
+
+	// states after a move
+	public static final String PLAYING = "playing";
+	public static final String CHECK = "check";
+	public static final String CHECKMATE = "checkmate";
+	public static final String STALEMATE = "stalemate";
+	public static final String FIFTY_MOVES = "fifty";
+	public static final String REPETITION = "repetition";
+
+	private final long id;
+	private final ChessMatch match;
+	private final MoveList moves = new MoveList();
+	private final ReentrantLock lock = new ReentrantLock();
+	private String state = PLAYING;
+	private String result = "*";
+
+	HostedMatch(long id, ChessMatch match) {
+		this.id = id;
+		this.match = match;
+		update();
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	// plays a move in long algebraic notation, e.g. e2e4 or e7e8q, and returns the state and
+	// result it left, read under the same lock so a move of the other player can't come between
+	public Outcome play(String text) {
+		lock.lock();
+		try {
+			if (isOver()) {
+				throw new ChessExceptions("Match " + id + " is over: " + result);
+			}
+			match.legalMoves(moves);
+			int move = Move.find(moves, text);
+			if (move == Move.NONE) {
+				throw new ChessExceptions("Illegal move: " + text);
+			}
+			match.makeMove(move);
+			update();
+			return new Outcome(state, result);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public String getFen() {
+		lock.lock();
+		try {
+			return match.toFen();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// the legal moves separated by spaces
+	public String getLegalMoves() {
+		lock.lock();
+		try {
+			match.legalMoves(moves);
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < moves.size(); i++) {
+				if (i > 0) {
+					sb.append(' ');
+				}
+				sb.append(Move.toString(moves.get(i)));
+			}
+			return sb.toString();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public String getState() {
+		lock.lock();
+		try {
+			return state;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// 1-0, 0-1, 1/2-1/2 or * while the match goes on
+	public String getResult() {
+		lock.lock();
+		try {
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isOver() {
+		lock.lock();
+		try {
+			return !result.equals("*");
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// true for the states that end the match
+	public static boolean isFinal(String state) {
+		return !state.equals(PLAYING) && !state.equals(CHECK);
+	}
+
+	private void update() {
+		match.legalMoves(moves);
+		if (moves.size() == 0) {
+			if (match.getCheck()) {
+				state = CHECKMATE;
+				result = (match.getcurrentPlayer() == Color.WHITE) ? "0-1" : "1-0";
+			} else {
+				state = STALEMATE;
+				result = "1/2-1/2";
+			}
+		} else if (match.getHalfMoveClock() >= 100) {
+			state = FIFTY_MOVES;
+			result = "1/2-1/2";
+		} else if (match.isThreefoldRepetition()) {
+			state = REPETITION;
+			result = "1/2-1/2";
+		} else {
+			state = match.getCheck() ? CHECK : PLAYING;
+		}
+	}
+
+	public static class Outcome {
+
+		private final String state;
+		private final String result;
+
+		Outcome(String state, String result) {
+			this.state = state;
+			this.result = result;
+		}
+
+		public String getState() {
+			return state;
+		}
+
+		public String getResult() {
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return state + " " + result;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package chess.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Counts of latencies in nanoseconds by bucket: each power of two is split into 16
+// buckets, so a percentile is within about 6% of the true value. Recording is one
+// atomic add and needs no lock.
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 16;
+	private static final int SUB_BITS = 4;
+
+	private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+	public void record(long nanos) {
+		counts.incrementAndGet(bucket(Math.max(0, nanos)));
+	}
+
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	// the latency below which the fraction of the recorded ones falls, e.g. 0.99
+	public long percentile(double fraction) {
+		long total = getCount();
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(fraction * total);
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= Math.max(1, rank)) {
+				return upperBound(i);
+			}
+		}
+		return upperBound(counts.length() - 1);
+	}
+
+	private static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int magnitude = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		int sub = bucket % SUB_BUCKETS;
+		return ((long) (SUB_BUCKETS + sub + 1) << (magnitude - SUB_BITS)) - 1;
+	}
+}
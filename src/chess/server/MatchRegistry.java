@@ -0,0 +1,59 @@
+package chess.server;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import chess.ChessExceptions;
+import chess.ChessMatch;
+
+// The matches of the server by id. The map only locks the bin it writes to and reads
+// without locking, and the counters are striped adders, so creating, finding and
+// finishing matches from many sessions at once does not funnel through one lock.
+public class MatchRegistry {
+
+	private final ConcurrentHashMap<Long, HostedMatch> matches = new ConcurrentHashMap<>();
+	private final AtomicLong nextId = new AtomicLong();
+	private final LongAdder started = new LongAdder();
+	private final LongAdder finished = new LongAdder();
+
+	// a new match from the starting position, or from a FEN when it is not null
+	public HostedMatch create(String fen) {
+		ChessMatch match = (fen != null) ? new ChessMatch(fen) : new ChessMatch();
+		HostedMatch hosted = new HostedMatch(nextId.incrementAndGet(), match);
+		matches.put(hosted.getId(), hosted);
+		started.increment();
+		return hosted;
+	}
+
+	public HostedMatch get(long id) {
+		HostedMatch hosted = matches.get(id);
+		if (hosted == null) {
+			throw new ChessExceptions("No match " + id);
+		}
+		return hosted;
+	}
+
+	public void remove(long id) {
+		if (matches.remove(id) == null) {
+			throw new ChessExceptions("No match " + id);
+		}
+	}
+
+	// counted by whoever played the last move
+	void finished() {
+		finished.increment();
+	}
+
+	public int size() {
+		return matches.size();
+	}
+
+	public long getStarted() {
+		return started.sum();
+	}
+
+	public long getFinished() {
+		return finished.sum();
+	}
+}
@@ -0,0 +1,182 @@
+package chess.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import chess.ChessExceptions;
+
+// Hosts any number of matches over a line protocol on a local socket. Every session
+// gets a virtual thread of its own, so thousands of idle players cost little. A
+// session may play in any match, requests are answered in order with one line:
+//
+//   new [fen]          ok <id>
+//   move <id> <move>   ok <state> <result>   state as in HostedMatch, move as e2e4 or e7e8q
+//   moves <id>         ok <move>...
+//   fen <id>           ok <fen>
+//   close <id>         ok
+//   stats              ok <counters and move latency percentiles>
+//   quit
+//
+// Failures are answered with "error <message>".
+public class MatchServer implements Closeable {
+
+	private final ServerSocket serverSocket;
+	private final MatchRegistry registry = new MatchRegistry();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+	private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+	private final long startNanos = System.nanoTime();
+	private volatile boolean closed;
+
+	// port 0 picks a free one, see getPort()
+	public MatchServer(int port) throws IOException {
+		serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public MatchRegistry getRegistry() {
+		return registry;
+	}
+
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+
+	// accepts sessions on a thread of its own until closed
+	public void start() {
+		Thread.ofVirtual().name("match-server-accept").start(() -> {
+			while (!closed) {
+				try {
+					Socket socket = serverSocket.accept();
+					sockets.add(socket);
+					sessions.execute(() -> serve(socket));
+				} catch (IOException e) {
+					if (!closed) {
+						System.err.println("Accept failed: " + e.getMessage());
+					}
+				}
+			}
+		});
+	}
+
+	// finished matches per second since the server started
+	public double getMatchesPerSecond() {
+		return registry.getFinished() / Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+	}
+
+	public String getStats() {
+		return String.format("matches %d started %d finished %d %.1f matches/s moves %d p50 %d us p90 %d us p99 %d us p99.9 %d us",
+				registry.size(), registry.getStarted(), registry.getFinished(), getMatchesPerSecond(),
+				latency.getCount(), latency.percentile(0.5) / 1000, latency.percentile(0.9) / 1000,
+				latency.percentile(0.99) / 1000, latency.percentile(0.999) / 1000);
+	}
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverSocket.close();
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		sessions.shutdown();
+	}
+
+	private void serve(Socket socket) {
+		try (socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+			socket.setTcpNoDelay(true);
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.equals("quit")) {
+					break;
+				}
+				if (line.isEmpty()) {
+					continue;
+				}
+				out.write(handle(line));
+				out.write('\n');
+				out.flush();
+			}
+		} catch (IOException e) {
+			// the player went away, its matches stay until closed
+		} finally {
+			sockets.remove(socket);
+		}
+	}
+
+	// the answer to one request line
+	String handle(String line) {
+		String[] words = line.split("\\s+", 3);
+		try {
+			switch (words[0]) {
+			case "new":
+				return "ok " + registry.create((words.length > 1) ? line.substring(4).trim() : null).getId();
+			case "move":
+				if (words.length < 3) {
+					return "error Usage: move <id> <move>";
+				}
+				return "ok " + play(registry.get(id(words[1])), words[2].trim());
+			case "moves":
+				return "ok " + registry.get(id(words)).getLegalMoves();
+			case "fen":
+				return "ok " + registry.get(id(words)).getFen();
+			case "close":
+				registry.remove(id(words));
+				return "ok";
+			case "stats":
+				return "ok " + getStats();
+			default:
+				return "error Unknown command: " + words[0];
+			}
+		} catch (ChessExceptions | IllegalArgumentException | IllegalStateException e) {
+			return "error " + e.getMessage();
+		} catch (RuntimeException e) {
+			// nothing a client sends may end its session
+			return "error " + e;
+		}
+	}
+
+	private String play(HostedMatch hosted, String move) {
+		long start = System.nanoTime();
+		HostedMatch.Outcome outcome = hosted.play(move);
+		latency.record(System.nanoTime() - start);
+		if (HostedMatch.isFinal(outcome.getState())) {
+			// only the move that ended the match gets here, later ones are refused
+			registry.finished();
+		}
+		return outcome.toString();
+	}
+
+	private static long id(String[] words) {
+		if (words.length < 2) {
+			throw new IllegalArgumentException("Missing match id");
+		}
+		return id(words[1]);
+	}
+
+	private static long id(String word) {
+		try {
+			return Long.parseLong(word);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid match id: " + word);
+		}
+	}
+}
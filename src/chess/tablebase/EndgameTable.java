@@ -0,0 +1,297 @@
+package chess.tablebase;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import chess.Color;
+import chess.PieceType;
+
+// The value of every placement of one material set, e.g. KQvK, with either side to
+// move. Values are packed into as few bits as the longest mate needs. Mirrored
+// positions have the same value, so white's king is folded into the a1-d1-d4
+// triangle, or into the files a-d when there are pawns on the board.
+//
+// file: u32 magic, UTF signature, u8 bits per value, u32 value count, u32 words, u64 words
+//
+// A value is 0 for a draw (or a placement that cannot occur), otherwise the plies to
+// mate plus one. The side to move wins when the plies are odd and is mated when even.
+public class EndgameTable {
+
+	static final int MAGIC = 0x43544231;
+
+	private static final String PIECES = "PNBRQK";
+	// order of the pieces of a side in a signature
+	private static final String ORDER = "KQRBNP";
+
+	// the eight symmetries of the board: bit 0 mirrors the files, bit 1 the ranks,
+	// bit 2 the a1-h8 diagonal
+	private static final int[][] TRANSFORMS = new int[8][64];
+	private static final int[] PAWNLESS_TRANSFORM = new int[64];
+	private static final int[] PAWNLESS_REGION = new int[64];
+	private static final int[] PAWN_REGION = new int[64];
+	private static final int PAWNLESS_SQUARES = 10;
+	private static final int PAWN_SQUARES = 32;
+
+	static {
+		for (int t = 0; t < 8; t++) {
+			for (int square = 0; square < 64; square++) {
+				int row = square / 8;
+				int column = square % 8;
+				if ((t & 4) != 0) {
+					int swapped = 7 - column;
+					column = 7 - row;
+					row = swapped;
+				}
+				if ((t & 1) != 0) {
+					column = 7 - column;
+				}
+				if ((t & 2) != 0) {
+					row = 7 - row;
+				}
+				TRANSFORMS[t][square] = row * 8 + column;
+			}
+		}
+		int region = 0;
+		for (int square = 0; square < 64; square++) {
+			PAWNLESS_REGION[square] = inTriangle(square) ? region++ : -1;
+			PAWN_REGION[square] = (square % 8 < 4) ? square / 8 * 4 + square % 8 : -1;
+			for (int t = 0; t < 8; t++) {
+				if (inTriangle(TRANSFORMS[t][square])) {
+					PAWNLESS_TRANSFORM[square] = t;
+					break;
+				}
+			}
+		}
+	}
+
+	private String signature;
+	private int[] colors;
+	private int[] types;
+	private boolean pawns;
+	private int bits;
+	private int size;
+	private long[] data;
+
+	// the pieces of a signature, without values
+	EndgameTable(String signature) {
+		this.signature = normalize(signature);
+		String[] sides = this.signature.split("v");
+		int count = sides[0].length() + sides[1].length();
+		colors = new int[count];
+		types = new int[count];
+		int i = 0;
+		for (int side = 0; side < 2; side++) {
+			for (char c : sides[side].toCharArray()) {
+				colors[i] = (side == 0) ? Color.WHITE.ordinal() : Color.BLACK.ordinal();
+				types[i] = PIECES.indexOf(c);
+				pawns |= types[i] == PieceType.PAWN.ordinal();
+				i++;
+			}
+		}
+		size = 2 * (pawns ? PAWN_SQUARES : PAWNLESS_SQUARES) << 6 * (count - 1);
+	}
+
+	// values by index(), packed into the smallest width that holds the largest
+	EndgameTable(String signature, byte[] values) {
+		this(signature);
+		if (values.length != size) {
+			throw new IllegalArgumentException("Expected " + size + " values for " + signature);
+		}
+		int max = 1;
+		for (byte value : values) {
+			max = Math.max(max, value & 0xff);
+		}
+		bits = 32 - Integer.numberOfLeadingZeros(max);
+		data = new long[(int) (((long) size * bits + 63) / 64)];
+		for (int i = 0; i < size; i++) {
+			long value = values[i] & 0xff;
+			long bit = (long) i * bits;
+			int word = (int) (bit >>> 6);
+			int offset = (int) (bit & 63);
+			data[word] |= value << offset;
+			if (offset + bits > 64) {
+				data[word + 1] |= value >>> (64 - offset);
+			}
+		}
+	}
+
+	public String getSignature() {
+		return signature;
+	}
+
+	public int getPieceCount() {
+		return types.length;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getBits() {
+		return bits;
+	}
+
+	int getColor(int piece) {
+		return colors[piece];
+	}
+
+	int getType(int piece) {
+		return types[piece];
+	}
+
+	int getMaterialKey() {
+		return materialKey(colors, types);
+	}
+
+	// the value stored at an index
+	public int get(int index) {
+		long bit = (long) index * bits;
+		int word = (int) (bit >>> 6);
+		int offset = (int) (bit & 63);
+		long value = data[word] >>> offset;
+		if (offset + bits > 64) {
+			value |= data[word + 1] << (64 - offset);
+		}
+		return (int) (value & ((1 << bits) - 1));
+	}
+
+	// squares in the order of the signature, white's king first; side is a Color ordinal
+	public int value(int side, int[] squares) {
+		return get(index(side, squares));
+	}
+
+	int index(int side, int[] squares) {
+		int t = pawns ? ((squares[0] % 8 < 4) ? 0 : 1) : PAWNLESS_TRANSFORM[squares[0]];
+		int[] transform = TRANSFORMS[t];
+		int index = side;
+		for (int i = squares.length - 1; i > 0; i--) {
+			index = index * 64 + transform[squares[i]];
+		}
+		int king = transform[squares[0]];
+		return pawns ? index * PAWN_SQUARES + PAWN_REGION[king] : index * PAWNLESS_SQUARES + PAWNLESS_REGION[king];
+	}
+
+	// the opposite of index(): a placement with that index, into squares, and its side to move
+	int placement(int index, int[] squares) {
+		int regions = pawns ? PAWN_SQUARES : PAWNLESS_SQUARES;
+		int region = index % regions;
+		index /= regions;
+		for (int square = 0; square < 64; square++) {
+			if ((pawns ? PAWN_REGION[square] : PAWNLESS_REGION[square]) == region) {
+				squares[0] = square;
+				break;
+			}
+		}
+		for (int i = 1; i < squares.length; i++) {
+			squares[i] = index % 64;
+			index /= 64;
+		}
+		return index;
+	}
+
+	public void write(Path path) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+			out.writeInt(MAGIC);
+			out.writeUTF(signature);
+			out.writeByte(bits);
+			out.writeInt(size);
+			out.writeInt(data.length);
+			for (long word : data) {
+				out.writeLong(word);
+			}
+		}
+	}
+
+	public static EndgameTable read(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Not an endgame table: " + path);
+			}
+			EndgameTable table = new EndgameTable(in.readUTF());
+			table.bits = in.readByte();
+			if (in.readInt() != table.size) {
+				throw new IOException("Wrong size for " + table.signature + ": " + path);
+			}
+			table.data = new long[in.readInt()];
+			for (int i = 0; i < table.data.length; i++) {
+				table.data[i] = in.readLong();
+			}
+			return table;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return signature;
+	}
+
+	// KQvK style, each side's pieces in KQRBNP order
+	public static String normalize(String signature) {
+		String[] sides = signature.toUpperCase().replace('V', 'v').split("v");
+		if (sides.length != 2) {
+			throw new IllegalArgumentException("Invalid material: " + signature);
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int side = 0; side < 2; side++) {
+			char[] pieces = sides[side].toCharArray();
+			for (char c : pieces) {
+				if (ORDER.indexOf(c) < 0) {
+					throw new IllegalArgumentException("Invalid material: " + signature);
+				}
+			}
+			if (pieces.length == 0 || sides[side].indexOf('K') != sides[side].lastIndexOf('K')
+					|| sides[side].indexOf('K') < 0) {
+				throw new IllegalArgumentException("Each side needs one king: " + signature);
+			}
+			Character[] sorted = new Character[pieces.length];
+			for (int i = 0; i < pieces.length; i++) {
+				sorted[i] = pieces[i];
+			}
+			Arrays.sort(sorted, (a, b) -> ORDER.indexOf(a) - ORDER.indexOf(b));
+			if (side == 1) {
+				sb.append('v');
+			}
+			for (char c : sorted) {
+				sb.append(c);
+			}
+		}
+		return sb.toString();
+	}
+
+	// signature of the pieces, Color ordinals and PieceType ordinals
+	static String signature(int[] colors, int[] types) {
+		StringBuilder white = new StringBuilder();
+		StringBuilder black = new StringBuilder();
+		for (int i = 0; i < types.length; i++) {
+			((colors[i] == Color.WHITE.ordinal()) ? white : black).append(PIECES.charAt(types[i]));
+		}
+		return normalize(white + "v" + black);
+	}
+
+	// counts of the pieces other than kings, two bits per color and type
+	static int materialKey(int[] colors, int[] types) {
+		int key = 0;
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] != PieceType.KING.ordinal()) {
+				key += 1 << 2 * (colors[i] * 5 + types[i]);
+			}
+		}
+		return key;
+	}
+
+	// the same key with the colors swapped
+	static int swapColors(int key) {
+		return (key >>> 10) | ((key & 0x3ff) << 10);
+	}
+
+	private static boolean inTriangle(int square) {
+		int column = square % 8;
+		return column < 4 && 7 - square / 8 <= column;
+	}
+}
@@ -0,0 +1,189 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import chess.ChessMatch;
+import chess.Color;
+import chess.PieceType;
+
+// The endgame tables of a directory, looked up by the material on the board. A table
+// answers for its colors swapped as well, KQvK also covers a black queen against the
+// lone white king. Positions with castling rights are never in a table.
+public final class Tablebase {
+
+	public static final String EXTENSION = ".tb";
+
+	// probe results besides the values of EndgameTable
+	public static final int UNKNOWN = -1;
+	public static final int DRAW = 0;
+
+	// probe runs at every search node of a small endgame, so its buffers are kept per thread
+	private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+	// sorted material keys and their tables, add replaces the whole index so probe reads it
+	// without a lock and without boxing the key
+	private volatile Index index = new Index(new int[0], new EndgameTable[0], 0);
+
+	public Tablebase() {
+	}
+
+	public Tablebase(Path directory) throws IOException {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : files) {
+				add(EndgameTable.read(file));
+			}
+		}
+	}
+
+	public synchronized void add(EndgameTable table) {
+		Index old = index;
+		int at = Arrays.binarySearch(old.keys, table.getMaterialKey());
+		int[] keys;
+		EndgameTable[] tables;
+		if (at >= 0) {
+			keys = old.keys;
+			tables = old.tables.clone();
+		} else {
+			at = -at - 1;
+			keys = new int[old.keys.length + 1];
+			tables = new EndgameTable[keys.length];
+			System.arraycopy(old.keys, 0, keys, 0, at);
+			System.arraycopy(old.keys, at, keys, at + 1, old.keys.length - at);
+			System.arraycopy(old.tables, 0, tables, 0, at);
+			System.arraycopy(old.tables, at, tables, at + 1, old.tables.length - at);
+			keys[at] = table.getMaterialKey();
+		}
+		tables[at] = table;
+		index = new Index(keys, tables, Math.max(old.maxPieces, table.getPieceCount()));
+	}
+
+	// the table of the material or of the material with the colors swapped, null if there is none
+	public EndgameTable find(String signature) {
+		int key = new EndgameTable(signature).getMaterialKey();
+		Index current = index;
+		EndgameTable found = current.get(key);
+		return (found != null) ? found : current.get(EndgameTable.swapColors(key));
+	}
+
+	public List<EndgameTable> getTables() {
+		return new ArrayList<>(Arrays.asList(index.tables));
+	}
+
+	public int getMaxPieces() {
+		return index.maxPieces;
+	}
+
+	// EndgameTable value of the position for the side to move, DRAW without a table when
+	// neither side can mate and UNKNOWN when the material has no table
+	public int probe(ChessMatch match) {
+		if (match.getPieceCount() > index.maxPieces || match.getCastlingRights() != 0) {
+			return UNKNOWN;
+		}
+		long[] boards = SCRATCH.get().boards;
+		for (Color color : Color.values()) {
+			for (PieceType type : PieceType.values()) {
+				boards[color.ordinal() * 6 + type.ordinal()] = match.getPieces(color, type);
+			}
+		}
+		return probe(boards, match.getcurrentPlayer().ordinal());
+	}
+
+	// bitboards by Color ordinal * 6 + PieceType ordinal, side is a Color ordinal
+	int probe(long[] boards, int side) {
+		int key = 0;
+		for (int color = 0; color < 2; color++) {
+			for (int type = 0; type < 5; type++) {
+				int count = Long.bitCount(boards[color * 6 + type]);
+				if (count > 3) {
+					return UNKNOWN;
+				}
+				key += count << 2 * (color * 5 + type);
+			}
+		}
+		Index current = index;
+		boolean swapped = false;
+		EndgameTable table = current.get(key);
+		if (table == null) {
+			table = current.get(EndgameTable.swapColors(key));
+			swapped = true;
+		}
+		if (table == null) {
+			return isInsufficient(key) ? DRAW : UNKNOWN;
+		}
+
+		Scratch scratch = SCRATCH.get();
+		int[] squares = scratch.squares[table.getPieceCount()];
+		long[] left = scratch.left;
+		System.arraycopy(boards, 0, left, 0, left.length);
+		for (int i = 0; i < squares.length; i++) {
+			int color = swapped ? table.getColor(i) ^ 1 : table.getColor(i);
+			int board = color * 6 + table.getType(i);
+			int square = Long.numberOfTrailingZeros(left[board]);
+			left[board] &= left[board] - 1;
+			squares[i] = swapped ? square ^ 56 : square;
+		}
+		return table.value(swapped ? side ^ 1 : side, squares);
+	}
+
+	public static boolean isWin(int value) {
+		return value > 0 && (value & 1) == 0;
+	}
+
+	public static boolean isLoss(int value) {
+		return value > 0 && (value & 1) == 1;
+	}
+
+	// plies to mate of a win or loss
+	public static int getDistance(int value) {
+		return value - 1;
+	}
+
+	// bare kings or a single knight or bishop
+	static boolean isInsufficient(int key) {
+		int knights = 1 << 2 * PieceType.KNIGHT.ordinal();
+		int bishops = 1 << 2 * PieceType.BISHOP.ordinal();
+		return key == 0 || key == knights || key == bishops || key == knights << 10 || key == bishops << 10;
+	}
+
+	public static boolean isInsufficient(String signature) {
+		return isInsufficient(new EndgameTable(signature).getMaterialKey());
+	}
+
+	private static class Index {
+
+		private final int[] keys;
+		private final EndgameTable[] tables;
+		private final int maxPieces;
+
+		Index(int[] keys, EndgameTable[] tables, int maxPieces) {
+			this.keys = keys;
+			this.tables = tables;
+			this.maxPieces = maxPieces;
+		}
+
+		EndgameTable get(int key) {
+			int at = Arrays.binarySearch(keys, key);
+			return (at >= 0) ? tables[at] : null;
+		}
+	}
+
+	private static class Scratch {
+
+		private long[] boards = new long[12];
+		private long[] left = new long[12];
+		// value() reads as many squares as the array holds, so one array per piece count
+		private int[][] squares = new int[TablebaseGenerator.MAX_PIECES + 1][];
+
+		Scratch() {
+			for (int i = 0; i < squares.length; i++) {
+				squares[i] = new int[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,488 @@
+package chess.tablebase;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import chess.Attacks;
+import chess.Color;
+import chess.PieceType;
+
+// Builds endgame tables by retrograde analysis. Every placement of the pieces is first
+// scored by its moves that leave the table, captures and promotions, whose values come
+// from the smaller tables, and checkmates are found. Then, one ply at a time, the
+// positions decided at that distance are played backwards: whoever could move into a
+// lost position wins, and a position whose moves all reach won positions is lost.
+// What is never decided is a draw. Each pass is split across threads by index range.
+//
+// Castling is never possible in a table and en passant is not modelled, so material
+// with pawns on both sides is refused.
+public class TablebaseGenerator {
+
+	public static final int MAX_PIECES = 4;
+
+	// exits[] beside plies plus one
+	private static final int ILLEGAL = 255;
+	private static final int DRAW_EXIT = 254;
+	private static final int MAX_DISTANCE = 252;
+
+	private static final int CHUNK = 1 << 14;
+	private static final int PAWN = PieceType.PAWN.ordinal();
+	private static final int KING = PieceType.KING.ordinal();
+	private static final int WHITE = Color.WHITE.ordinal();
+	private static final int[] PROMOTIONS = { PieceType.QUEEN.ordinal(), PieceType.ROOK.ordinal(),
+			PieceType.BISHOP.ordinal(), PieceType.KNIGHT.ordinal() };
+	private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+
+	private Tablebase tablebase;
+	private Path directory;
+	private int threads;
+
+	// new tables are written to the directory and added to the tablebase
+	public TablebaseGenerator(Tablebase tablebase, Path directory, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed");
+		}
+		this.tablebase = tablebase;
+		this.directory = directory;
+		this.threads = threads;
+	}
+
+	// the table of the material, generated with the tables it depends on unless already there
+	public EndgameTable generate(String signature) throws IOException {
+		EndgameTable table = tablebase.find(signature);
+		if (table != null) {
+			return table;
+		}
+		Generation generation = new Generation(new EndgameTable(signature));
+		for (String child : generation.children()) {
+			if (!Tablebase.isInsufficient(child)) {
+				generate(child);
+			}
+		}
+		table = generation.run();
+		table.write(directory.resolve(table.getSignature() + Tablebase.EXTENSION));
+		tablebase.add(table);
+		return table;
+	}
+
+	private interface RangeTask {
+		void run(int[] squares, long[] boards, int from, int to);
+	}
+
+	// the work of one table over the full index: side << 6 * count | square of piece i << 6 * i
+	private class Generation {
+
+		private EndgameTable shape;
+		private int count;
+		private int[] colors;
+		private int[] types;
+		private int[] kings = new int[2];
+		private int shift;
+		private int size;
+
+		// value as in EndgameTable, in-table moves not yet refuted, best exit
+		private byte[] values;
+		private byte[] remaining;
+		private byte[] exits;
+
+		Generation(EndgameTable shape) {
+			this.shape = shape;
+			count = shape.getPieceCount();
+			if (count > MAX_PIECES) {
+				throw new IllegalArgumentException("At most " + MAX_PIECES + " pieces: " + shape);
+			}
+			colors = new int[count];
+			types = new int[count];
+			boolean[] pawns = new boolean[2];
+			for (int i = 0; i < count; i++) {
+				colors[i] = shape.getColor(i);
+				types[i] = shape.getType(i);
+				if (types[i] == KING) {
+					kings[colors[i]] = i;
+				}
+				pawns[colors[i]] |= types[i] == PAWN;
+			}
+			if (pawns[0] && pawns[1]) {
+				throw new IllegalArgumentException("En passant is not modelled, pawns on one side only: " + shape);
+			}
+			shift = 6 * count;
+			size = 2 << shift;
+		}
+
+		// materials a capture or a promotion leads to
+		List<String> children() {
+			List<String> children = new ArrayList<>();
+			for (int i = 0; i < count; i++) {
+				if (types[i] == KING) {
+					continue;
+				}
+				children.add(EndgameTable.signature(without(colors, i), without(types, i)));
+				if (types[i] == PAWN) {
+					for (int promotion : PROMOTIONS) {
+						int[] promoted = types.clone();
+						promoted[i] = promotion;
+						children.add(EndgameTable.signature(colors, promoted));
+					}
+				}
+			}
+			return children;
+		}
+
+		EndgameTable run() {
+			values = new byte[size];
+			remaining = new byte[size];
+			exits = new byte[size];
+
+			parallel((squares, boards, from, to) -> {
+				for (int index = from; index < to; index++) {
+					initialize(index, squares, boards);
+				}
+			});
+
+			// wins and losses through an exit are final once the passes reach their length
+			int longestExit = 0;
+			for (int index = 0; index < size; index++) {
+				int exit = exits[index] & 0xff;
+				if (exit != ILLEGAL && exit != DRAW_EXIT) {
+					longestExit = Math.max(longestExit, exit - 1);
+				}
+			}
+
+			for (int distance = 0; distance <= MAX_DISTANCE; distance++) {
+				int d = distance;
+				if (d % 2 == 1 && d <= longestExit) {
+					parallel((squares, boards, from, to) -> {
+						for (int index = from; index < to; index++) {
+							if (values[index] == 0 && (exits[index] & 0xff) == d + 1) {
+								values[index] = (byte) (d + 1);
+							}
+						}
+					});
+				}
+				AtomicLong decided = new AtomicLong();
+				parallel((squares, boards, from, to) -> {
+					long found = 0;
+					for (int index = from; index < to; index++) {
+						if ((values[index] & 0xff) == d + 1) {
+							retract(index, d, squares);
+							found++;
+						}
+					}
+					decided.addAndGet(found);
+				});
+				if (decided.get() == 0 && d >= longestExit) {
+					break;
+				}
+			}
+
+			byte[] folded = new byte[shape.size()];
+			int[] squares = new int[count];
+			for (int i = 0; i < folded.length; i++) {
+				int side = shape.placement(i, squares);
+				int index = side << shift;
+				for (int piece = 0; piece < count; piece++) {
+					index |= squares[piece] << 6 * piece;
+				}
+				folded[i] = values[index];
+			}
+			values = null;
+			remaining = null;
+			exits = null;
+			return new EndgameTable(shape.getSignature(), folded);
+		}
+
+		private void initialize(int index, int[] squares, long[] boards) {
+			if (!decode(index, squares)) {
+				exits[index] = (byte) ILLEGAL;
+				return;
+			}
+			int side = index >>> shift;
+			int other = side ^ 1;
+			long occupied = occupied(squares);
+			if (attacked(squares, squares[kings[other]], side, occupied, -1)) {
+				exits[index] = (byte) ILLEGAL;
+				return;
+			}
+
+			int moves = 0;
+			int shortestWin = Integer.MAX_VALUE;
+			int longestLoss = -1;
+			boolean draw = false;
+			for (int i = 0; i < count; i++) {
+				if (colors[i] != side) {
+					continue;
+				}
+				int from = squares[i];
+				long targets = targets(i, from, squares, occupied);
+				while (targets != 0) {
+					int to = Long.numberOfTrailingZeros(targets);
+					targets &= targets - 1;
+					int captured = pieceOn(squares, to);
+					squares[i] = to;
+					long after = (occupied & ~(1L << from)) | (1L << to);
+					if (!attacked(squares, squares[kings[side]], other, after, captured)) {
+						boolean promotion = types[i] == PAWN && (to < 8 || to >= 56);
+						if (captured < 0 && !promotion) {
+							moves++;
+						} else {
+							for (int type : promotion ? PROMOTIONS : new int[] { types[i] }) {
+								int value = child(squares, boards, captured, i, type, other);
+								if (value == Tablebase.UNKNOWN) {
+									throw new IllegalStateException("No table after a capture or promotion in " + shape);
+								}
+								// the child's distance plus this move
+								if (value == Tablebase.DRAW) {
+									draw = true;
+								} else if (Tablebase.isWin(value)) {
+									longestLoss = Math.max(longestLoss, value);
+								} else {
+									shortestWin = Math.min(shortestWin, value);
+								}
+							}
+						}
+					}
+					squares[i] = from;
+				}
+			}
+
+			int exit = 0;
+			if (shortestWin != Integer.MAX_VALUE) {
+				exit = shortestWin + 1;
+			} else if (draw) {
+				exit = DRAW_EXIT;
+			} else if (longestLoss >= 0) {
+				exit = longestLoss + 1;
+			}
+			if (exit > MAX_DISTANCE + 1 && exit != DRAW_EXIT) {
+				throw new IllegalStateException("Mate too long to store in " + shape);
+			}
+			exits[index] = (byte) exit;
+			remaining[index] = (byte) moves;
+			if (moves == 0) {
+				if (exit == 0) {
+					// mated, or stalemate which stays a draw
+					values[index] = (byte) (attacked(squares, squares[kings[side]], other, occupied, -1) ? 1 : 0);
+				} else if (exit != DRAW_EXIT) {
+					values[index] = (byte) exit;
+				}
+			}
+		}
+
+		// the positions one move before a position decided at distance d
+		private void retract(int index, int d, int[] squares) {
+			decode(index, squares);
+			int mover = (index >>> shift) ^ 1;
+			long occupied = occupied(squares);
+			for (int i = 0; i < count; i++) {
+				if (colors[i] != mover) {
+					continue;
+				}
+				int to = squares[i];
+				long origins = (types[i] == PAWN) ? pawnOrigins(mover, to, occupied)
+						: attacks(i, to, occupied) & ~occupied;
+				while (origins != 0) {
+					squares[i] = Long.numberOfTrailingZeros(origins);
+					origins &= origins - 1;
+					int previous = index(mover, squares);
+					if ((exits[previous] & 0xff) == ILLEGAL || values[previous] != 0) {
+						continue;
+					}
+					
+					if (d % 2 == 0) {
+						// moving into a lost position wins
+						BYTES.compareAndSet(values, previous, (byte) 0, (byte) (d + 2));
+					} else if (refute(previous)) {
+						lost(previous, d + 1);
+					}
+				}
+				squares[i] = to;
+			}
+		}
+
+		// one more move of the position reaches a won position, true for the last of them
+		private boolean refute(int index) {
+			byte left;
+			do {
+				left = (byte) BYTES.getVolatile(remaining, index);
+			} while (!BYTES.compareAndSet(remaining, index, left, (byte) (left - 1)));
+			return left == 1;
+		}
+
+		// every move in the table reaches a won position, the last of them at distance
+		private void lost(int index, int distance) {
+			int exit = exits[index] & 0xff;
+			if (exit == DRAW_EXIT || exit != 0 && (exit - 1) % 2 == 1) {
+				// a capture or promotion still draws or wins
+				return;
+			}
+			if (exit != 0) {
+				distance = Math.max(distance, exit - 1);
+			}
+			values[index] = (byte) (distance + 1);
+		}
+
+		// value of the position after a capture or promotion, from the smaller tables
+		private int child(int[] squares, long[] boards, int captured, int mover, int type, int side) {
+			for (int i = 0; i < boards.length; i++) {
+				boards[i] = 0;
+			}
+			for (int i = 0; i < count; i++) {
+				if (i != captured) {
+					boards[colors[i] * 6 + ((i == mover) ? type : types[i])] |= 1L << squares[i];
+				}
+			}
+			return tablebase.probe(boards, side);
+		}
+
+		private boolean decode(int index, int[] squares) {
+			long occupied = 0;
+			for (int i = 0; i < count; i++) {
+				int square = (index >>> 6 * i) & 63;
+				if ((occupied & (1L << square)) != 0 || types[i] == PAWN && (square < 8 || square >= 56)) {
+					return false;
+				}
+				occupied |= 1L << square;
+				squares[i] = square;
+			}
+			return true;
+		}
+
+		private int index(int side, int[] squares) {
+			int index = side << shift;
+			for (int i = 0; i < count; i++) {
+				index |= squares[i] << 6 * i;
+			}
+			return index;
+		}
+
+		private long occupied(int[] squares) {
+			long occupied = 0;
+			for (int i = 0; i < count; i++) {
+				occupied |= 1L << squares[i];
+			}
+			return occupied;
+		}
+
+		private int pieceOn(int[] squares, int square) {
+			for (int i = 0; i < count; i++) {
+				if (squares[i] == square) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private boolean attacked(int[] squares, int square, int color, long occupied, int captured) {
+			for (int i = 0; i < count; i++) {
+				if (colors[i] == color && i != captured && (attacks(i, squares[i], occupied) & (1L << square)) != 0) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private long attacks(int piece, int square, long occupied) {
+			switch (PieceType.values()[types[piece]]) {
+			case PAWN:
+				return Attacks.pawnAttacks(Color.values()[colors[piece]], square);
+			case KNIGHT:
+				return Attacks.knightAttacks(square);
+			case BISHOP:
+				return Attacks.bishopAttacks(square, occupied);
+			case ROOK:
+				return Attacks.rookAttacks(square, occupied);
+			case QUEEN:
+				return Attacks.queenAttacks(square, occupied);
+			default:
+				return Attacks.kingAttacks(square);
+			}
+		}
+
+		private long targets(int piece, int from, int[] squares, long occupied) {
+			long own = 0;
+			for (int i = 0; i < count; i++) {
+				if (colors[i] == colors[piece]) {
+					own |= 1L << squares[i];
+				}
+			}
+			if (types[piece] != PAWN) {
+				return attacks(piece, from, occupied) & ~own;
+			}
+			long targets = attacks(piece, from, occupied) & occupied & ~own;
+			// white pawns move towards square 0
+			int step = (colors[piece] == WHITE) ? -8 : 8;
+			int start = (colors[piece] == WHITE) ? 6 : 1;
+			if ((occupied & (1L << (from + step))) == 0) {
+				targets |= 1L << (from + step);
+				if (from / 8 == start && (occupied & (1L << (from + 2 * step))) == 0) {
+					targets |= 1L << (from + 2 * step);
+				}
+			}
+			return targets;
+		}
+
+		// squares a pawn now on the square came from without capturing
+		private long pawnOrigins(int color, int square, long occupied) {
+			int back = (color == WHITE) ? 8 : -8;
+			int doubleRow = (color == WHITE) ? 4 : 3;
+			int origin = square + back;
+			if (origin < 8 || origin >= 56 || (occupied & (1L << origin)) != 0) {
+				return 0;
+			}
+			long origins = 1L << origin;
+			if (square / 8 == doubleRow && (occupied & (1L << (origin + back))) == 0) {
+				origins |= 1L << (origin + back);
+			}
+			return origins;
+		}
+
+		private void parallel(RangeTask task) {
+			AtomicInteger next = new AtomicInteger();
+			AtomicReference<RuntimeException> failure = new AtomicReference<>();
+			Thread[] workers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				workers[t] = new Thread(() -> {
+					int[] squares = new int[count];
+					long[] boards = new long[12];
+					try {
+						int from;
+						while ((from = next.getAndAdd(CHUNK)) < size && failure.get() == null) {
+							task.run(squares, boards, from, Math.min(size, from + CHUNK));
+						}
+					} catch (RuntimeException e) {
+						failure.compareAndSet(null, e);
+					}
+				}, "tablebase-" + t);
+				workers[t].start();
+			}
+			for (Thread worker : workers) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while generating " + shape);
+				}
+			}
+			if (failure.get() != null) {
+				throw failure.get();
+			}
+		}
+	}
+
+	private static int[] without(int[] values, int skip) {
+		int[] result = new int[values.length - 1];
+		for (int i = 0, j = 0; i < values.length; i++) {
+			if (i != skip) {
+				result[j++] = values[i];
+			}
+		}
+		return result;
+	}
+}